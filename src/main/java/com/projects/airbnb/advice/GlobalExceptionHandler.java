@@ -1,7 +1,10 @@
 package com.projects.airbnb.advice;
 
+import com.projects.airbnb.exception.BadRequestException;
+import com.projects.airbnb.exception.InvalidCursorException;
 import com.projects.airbnb.exception.ResourceNotFoundException;
 import com.projects.airbnb.exception.RoomUnavailableException;
+import com.projects.airbnb.exception.ServiceUnavailableException;
 import com.projects.airbnb.exception.UsernameNotFoundException;
 import io.jsonwebtoken.JwtException;
 import jakarta.persistence.NonUniqueResultException;
@@ -99,6 +102,36 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(apiError);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ApiResponse<?>> handleInvalidCursor(InvalidCursorException exception) {
+        ApiError apiError = ApiError.builder()
+                .httpStatus(HttpStatus.BAD_REQUEST)
+                .message(exception.getMessage())
+                .build();
+
+        return buildErrorResponse(apiError);
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ApiResponse<?>> handleBadRequest(BadRequestException exception) {
+        ApiError apiError = ApiError.builder()
+                .httpStatus(HttpStatus.BAD_REQUEST)
+                .message(exception.getMessage())
+                .build();
+
+        return buildErrorResponse(apiError);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiResponse<?>> handleServiceUnavailable(ServiceUnavailableException exception) {
+        ApiError apiError = ApiError.builder()
+                .httpStatus(HttpStatus.SERVICE_UNAVAILABLE)
+                .message(exception.getMessage())
+                .build();
+
+        return buildErrorResponse(apiError);
+    }
+
     @ExceptionHandler(NonUniqueResultException.class)
     public ResponseEntity<ApiResponse<?>> handleNonUniqueResult(NonUniqueResultException ex) {
         ApiError error = ApiError.builder()
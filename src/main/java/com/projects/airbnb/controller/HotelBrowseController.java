@@ -1,28 +1,111 @@
 package com.projects.airbnb.controller;
 
+import com.projects.airbnb.dto.BatchSearchRequest;
+import com.projects.airbnb.dto.BatchSearchResponseDto;
+import com.projects.airbnb.dto.CitySuggestionDto;
+import com.projects.airbnb.dto.CursorPage;
+import com.projects.airbnb.dto.FlexibleHotelDto;
+import com.projects.airbnb.dto.FlexibleSearchRequest;
 import com.projects.airbnb.dto.HotelInfoDto;
 import com.projects.airbnb.dto.HotelPriceDto;
 import com.projects.airbnb.dto.HotelSearchRequest;
+import com.projects.airbnb.dto.NearbyHotelDto;
+import com.projects.airbnb.dto.NearbySearchRequest;
+import com.projects.airbnb.search.CitySuggestIndex;
+import com.projects.airbnb.service.BatchSearchService;
+import com.projects.airbnb.service.HotelSearchStreamService;
 import com.projects.airbnb.service.impl.HotelService;
 import com.projects.airbnb.service.impl.InventoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.util.List;
 
 @RestController
 @RequestMapping(path = "/hotels")
 @RequiredArgsConstructor
 public class HotelBrowseController {
 
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
     private final InventoryService inventoryService;
     private final HotelService hotelService;
+    private final BatchSearchService batchSearchService;
+    private final CitySuggestIndex citySuggestIndex;
+    private final HotelSearchStreamService hotelSearchStreamService;
+
+    @Value("${search.cache.http-max-age:30s}")
+    private Duration searchMaxAge;
 
     @GetMapping(path = "/search")
-    public ResponseEntity<Page<HotelPriceDto>> searchHotels(
-            @RequestBody HotelSearchRequest hotelSearchRequest) {
+    public ResponseEntity<CursorPage<HotelPriceDto>> searchHotels(
+            @ModelAttribute HotelSearchRequest hotelSearchRequest) {
+        CursorPage<HotelPriceDto> page = inventoryService.searchHotelsByCursor(hotelSearchRequest);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(searchMaxAge).cachePublic())
+                .body(page);
+    }
+
+    @GetMapping(path = "/search", params = "page")
+    public ResponseEntity<Page<HotelPriceDto>> searchHotelsByOffset(
+            @ModelAttribute HotelSearchRequest hotelSearchRequest) {
         Page<HotelPriceDto> page = inventoryService.searchHotels(hotelSearchRequest);
-        return ResponseEntity.ok(page);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(searchMaxAge).cachePublic())
+                .body(page);
+    }
+
+    @GetMapping(path = "/search", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamHotels(
+            @ModelAttribute HotelSearchRequest hotelSearchRequest) {
+        StreamingResponseBody body = hotelSearchStreamService.stream(hotelSearchRequest, false);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(body);
+    }
+
+    @GetMapping(path = "/search", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamHotelsAsEvents(
+            @ModelAttribute HotelSearchRequest hotelSearchRequest) {
+        StreamingResponseBody body = hotelSearchStreamService.stream(hotelSearchRequest, true);
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(body);
+    }
+
+    @GetMapping(path = "/search/nearby")
+    public ResponseEntity<List<NearbyHotelDto>> searchNearbyHotels(
+            @ModelAttribute NearbySearchRequest nearbySearchRequest) {
+        List<NearbyHotelDto> hotels = inventoryService.searchNearbyHotels(nearbySearchRequest);
+        return ResponseEntity.ok(hotels);
+    }
+
+    @GetMapping(path = "/search/flexible")
+    public ResponseEntity<List<FlexibleHotelDto>> searchFlexibleHotels(
+            @ModelAttribute FlexibleSearchRequest flexibleSearchRequest) {
+        List<FlexibleHotelDto> hotels = inventoryService.searchFlexibleHotels(flexibleSearchRequest);
+        return ResponseEntity.ok(hotels);
+    }
+
+    @PostMapping(path = "/search/batch")
+    public ResponseEntity<BatchSearchResponseDto> searchHotelsInBatch(
+            @RequestBody BatchSearchRequest batchSearchRequest) {
+        BatchSearchResponseDto response = batchSearchService.search(batchSearchRequest);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping(path = "/cities/suggest")
+    public ResponseEntity<List<CitySuggestionDto>> suggestCities(@RequestParam String q,
+                                                                 @RequestParam(defaultValue = "10") Integer limit) {
+        List<CitySuggestionDto> suggestions = citySuggestIndex.suggest(q, Math.clamp(limit, 1, 50));
+        return ResponseEntity.ok(suggestions);
     }
 
     @GetMapping(path = "/{hotelId}/info")
@@ -1,12 +1,18 @@
 package com.projects.airbnb.controller;
 
 import com.projects.airbnb.dto.BookingDto;
+import com.projects.airbnb.dto.CursorPage;
+import com.projects.airbnb.dto.HotelActivationStatusDto;
 import com.projects.airbnb.dto.HotelDto;
 import com.projects.airbnb.dto.HotelReportDto;
 import com.projects.airbnb.service.impl.BookingService;
 import com.projects.airbnb.service.impl.HotelService;
+import com.projects.airbnb.utility.CursorCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -50,9 +56,15 @@ public class HotelController {
     }
 
     @PatchMapping(path = "/{hotelId}/activate")
-    public ResponseEntity<HotelDto> activateHotel(@PathVariable Long hotelId) {
-        hotelService.activateHotel(hotelId);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<HotelActivationStatusDto> activateHotel(@PathVariable Long hotelId) {
+        HotelActivationStatusDto activationStatus = hotelService.activateHotel(hotelId);
+        return new ResponseEntity<>(activationStatus, HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping(path = "/{hotelId}/activation")
+    public ResponseEntity<HotelActivationStatusDto> getActivationStatus(@PathVariable Long hotelId) {
+        HotelActivationStatusDto activationStatus = hotelService.getActivationStatus(hotelId);
+        return ResponseEntity.ok(activationStatus);
     }
 
     @GetMapping
@@ -62,8 +74,19 @@ public class HotelController {
     }
 
     @GetMapping("/{hotelId}/bookings")
-    public ResponseEntity<List<BookingDto>> getAllBookingByHotelId(@PathVariable Long hotelId)  {
-        List<BookingDto> bookingDto = bookingService.getAllBookingByHotelId(hotelId);
+    public ResponseEntity<CursorPage<BookingDto>> getAllBookingByHotelId(@PathVariable Long hotelId,
+                                                                         @RequestParam(required = false) String cursor,
+                                                                         @RequestParam(defaultValue = "10") Integer size) {
+        CursorPage<BookingDto> bookingDto = bookingService.getAllBookingByHotelId(hotelId, cursor, size);
+        return ResponseEntity.ok(bookingDto);
+    }
+
+    @GetMapping(path = "/{hotelId}/bookings", params = "page")
+    public ResponseEntity<Page<BookingDto>> getAllBookingByHotelIdByOffset(@PathVariable Long hotelId,
+                                                                           @RequestParam Integer page,
+                                                                           @RequestParam(defaultValue = "10") Integer size) {
+        Page<BookingDto> bookingDto = bookingService.getAllBookingByHotelId(hotelId,
+                PageRequest.of(CursorCodec.checkPage(page), CursorCodec.checkSize(size), Sort.by("id").descending()));
         return ResponseEntity.ok(bookingDto);
     }
 
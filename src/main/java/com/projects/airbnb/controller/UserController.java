@@ -1,16 +1,19 @@
 package com.projects.airbnb.controller;
 
 import com.projects.airbnb.dto.BookingDto;
+import com.projects.airbnb.dto.CursorPage;
 import com.projects.airbnb.dto.ProfileUpdateRequestDto;
 import com.projects.airbnb.dto.UserDto;
 import com.projects.airbnb.service.impl.BookingService;
 import com.projects.airbnb.service.impl.UserService;
+import com.projects.airbnb.utility.CursorCodec;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/users")
 @RequiredArgsConstructor
@@ -26,8 +29,18 @@ public class UserController {
     }
 
     @GetMapping("/myBookings")
-    public ResponseEntity<List<BookingDto>> getBookingsForCurrentUser() {
-        List<BookingDto> userBookings = bookingService.getMyBookings();
+    public ResponseEntity<CursorPage<BookingDto>> getBookingsForCurrentUser(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") Integer size) {
+        CursorPage<BookingDto> userBookings = bookingService.getMyBookings(cursor, size);
+        return ResponseEntity.ok(userBookings);
+    }
+
+    @GetMapping(path = "/myBookings", params = "page")
+    public ResponseEntity<Page<BookingDto>> getBookingsForCurrentUserByOffset(
+            @RequestParam Integer page,
+            @RequestParam(defaultValue = "10") Integer size) {
+        Page<BookingDto> userBookings = bookingService.getMyBookings(PageRequest.of(CursorCodec.checkPage(page), CursorCodec.checkSize(size), Sort.by("id").descending()));
         return ResponseEntity.ok(userBookings);
     }
 
@@ -0,0 +1,13 @@
+package com.projects.airbnb.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchSearchRequest {
+    private List<HotelSearchRequest> searches;
+
+    // deadline for the whole batch, sub-searches still running when it passes are reported as timed out
+    private Long timeoutMs;
+}
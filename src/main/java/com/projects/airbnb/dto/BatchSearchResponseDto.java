@@ -0,0 +1,16 @@
+package com.projects.airbnb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchSearchResponseDto {
+    private List<BatchSearchResultDto> results;
+    private List<Integer> timedOut;
+    private Long elapsedMs;
+}
@@ -0,0 +1,17 @@
+package com.projects.airbnb.dto;
+
+import com.projects.airbnb.entity.enums.SearchOutcome;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchSearchResultDto {
+    private Integer index;
+    private String city;
+    private SearchOutcome outcome;
+    private CursorPage<HotelPriceDto> page;
+    private String error;
+}
@@ -0,0 +1,13 @@
+package com.projects.airbnb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CitySuggestionDto {
+    private String city;
+    private Integer hotelCount;
+}
@@ -0,0 +1,17 @@
+package com.projects.airbnb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private Integer size;
+    private String nextCursor;
+    private boolean hasNext;
+}
@@ -0,0 +1,16 @@
+package com.projects.airbnb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FlexibleHotelDto {
+    private HotelPriceDto hotel;
+    private LocalDate startDate;
+    private LocalDate endDate;
+}
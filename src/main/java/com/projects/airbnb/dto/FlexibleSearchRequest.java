@@ -0,0 +1,27 @@
+package com.projects.airbnb.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class FlexibleSearchRequest {
+    private String city;
+
+    // the whole stay has to fit between these dates
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate windowStart;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate windowEnd;
+
+    private Integer nights;
+
+    private Integer roomsCount;
+
+    private List<String> amenities;
+
+    private Integer size = 20;
+}
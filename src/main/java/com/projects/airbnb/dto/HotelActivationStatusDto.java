@@ -0,0 +1,22 @@
+package com.projects.airbnb.dto;
+
+import com.projects.airbnb.entity.enums.ActivationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HotelActivationStatusDto {
+    private Long hotelId;
+    private ActivationStatus status;
+    private Integer totalRooms;
+    private Integer roomsDone;
+    private Integer roomsRemaining;
+    private Long inventoryCreated;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
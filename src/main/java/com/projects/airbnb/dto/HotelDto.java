@@ -8,6 +8,9 @@ public class HotelDto {
     private Long id;
     private String name;
     private String city;
+    private Double latitude;
+    private Double longitude;
+    private String region;
     private String[] photos;
     private String[] amenities;
     private HotelContactInfo contactInfo;
@@ -1,14 +1,27 @@
 package com.projects.airbnb.dto;
 
-import com.projects.airbnb.entity.Hotel;
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+/**
+ * Flat search hit, selected column by column so a search never loads the Hotel entity and its owner.
+ */
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 public class HotelPriceDto {
-    private Hotel hotel;
+    private Long hotelId;
+    private String name;
+    private String city;
+    private String photo;
+    private String[] amenities;
     private Double price;
+
+    public HotelPriceDto(Long hotelId, String name, String city, String[] photos, String[] amenities, Double price) {
+        this.hotelId = hotelId;
+        this.name = name;
+        this.city = city;
+        this.photo = photos == null || photos.length == 0 ? null : photos[0];
+        this.amenities = amenities;
+        this.price = price;
+    }
 }
@@ -1,16 +1,28 @@
 package com.projects.airbnb.dto;
 
 import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDate;
+import java.util.List;
 
 @Data
 public class HotelSearchRequest {
     private String city;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
     private LocalDate startDate;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
     private LocalDate endDate;
+
     private Integer roomsCount;
 
+    // every listed amenity has to be offered by the hotel or one of its rooms
+    private List<String> amenities;
+
+    // offset paging is used only when a page is requested explicitly, otherwise the cursor continues the search
     private Integer page = 0;
     private Integer size = 10;
+    private String cursor;
 }
@@ -0,0 +1,23 @@
+package com.projects.airbnb.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+@Data
+public class NearbySearchRequest {
+    private Double latitude;
+    private Double longitude;
+    private Double radiusKm = 10.0;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startDate;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate endDate;
+
+    private Integer roomsCount;
+
+    private Integer size = 20;
+}
@@ -0,0 +1,31 @@
+package com.projects.airbnb.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(
+        name = "unique_holiday_region_date",
+        columnNames = {"region", "date"}
+))
+public class Holiday {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 16)
+    private String region; // country code, optionally followed by a subdivision, e.g. IN or IN-MH
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    private String name;
+}
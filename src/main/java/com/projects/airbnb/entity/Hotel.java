@@ -25,6 +25,12 @@ public class Hotel {
 
     private String city;
 
+    private Double latitude;
+
+    private Double longitude;
+
+    private String region; // holiday calendar, e.g. IN or IN-MH
+
     @Column(columnDefinition = "TEXT[]")
     private String[] photos;
 
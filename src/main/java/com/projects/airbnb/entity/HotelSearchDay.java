@@ -0,0 +1,62 @@
+package com.projects.airbnb.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Searchable state of one room type of a hotel on one day. Kept per room type rather than per hotel because a
+ * stay is booked in a single room type, so a hotel matches only when one room type is free on every night.
+ */
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@Table(name = "hotel_search_day",
+        uniqueConstraints = @UniqueConstraint(
+                name = "unique_hotel_search_day",
+                columnNames = {"hotel_id", "room_id", "date"}
+        ),
+        indexes = @Index(name = "idx_hotel_search_day_city_date", columnList = "city, date, free_count")
+)
+public class HotelSearchDay {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "hotel_id", nullable = false)
+    private Hotel hotel;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "room_id", nullable = false)
+    private Room room;
+
+    @Column(nullable = false)
+    private String city;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Column(nullable = false)
+    private Integer freeCount; // rooms neither booked nor reserved, 0 when the day is closed
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal price;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    public HotelSearchDay(Hotel hotel, Room room, LocalDate date) {
+        this.hotel = hotel;
+        this.room = room;
+        this.date = date;
+    }
+}
@@ -0,0 +1,78 @@
+package com.projects.airbnb.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One row per room per calendar month. Index {@code i} of every array holds day {@code i + 1} of the month,
+ * and bit {@code i} of the masks flags that day as seeded or closed.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "room_month_inventory", uniqueConstraints = @UniqueConstraint(
+        name = "unique_room_month",
+        columnNames = {"room_id", "month_start"}
+))
+public class RoomMonthInventory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "hotel_id", nullable = false)
+    private Hotel hotel;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "room_id", nullable = false)
+    private Room room;
+
+    @Column(nullable = false)
+    private LocalDate monthStart;
+
+    @Column(nullable = false)
+    private Integer presentMask;
+
+    @Column(nullable = false)
+    private Integer closedMask;
+
+    @Column(nullable = false, columnDefinition = "SMALLINT[]")
+    private short[] totalCount;
+
+    @Column(nullable = false, columnDefinition = "SMALLINT[]")
+    private short[] bookedCount;
+
+    @Column(nullable = false, columnDefinition = "SMALLINT[]")
+    private short[] reservedCount;
+
+    @Column(nullable = false, columnDefinition = "INTEGER[]")
+    private int[] surgeHundredths;
+
+    @Column(nullable = false, columnDefinition = "INTEGER[]")
+    private int[] priceCents;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    public RoomMonthInventory(Room room, LocalDate monthStart) {
+        int days = monthStart.lengthOfMonth();
+        this.hotel = room.getHotel();
+        this.room = room;
+        this.monthStart = monthStart;
+        this.presentMask = 0;
+        this.closedMask = 0;
+        this.totalCount = new short[days];
+        this.bookedCount = new short[days];
+        this.reservedCount = new short[days];
+        this.surgeHundredths = new int[days];
+        this.priceCents = new int[days];
+    }
+}
@@ -0,0 +1,8 @@
+package com.projects.airbnb.entity.enums;
+
+public enum ActivationStatus {
+    NOT_STARTED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
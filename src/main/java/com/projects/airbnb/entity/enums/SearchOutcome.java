@@ -0,0 +1,7 @@
+package com.projects.airbnb.entity.enums;
+
+public enum SearchOutcome {
+    COMPLETED,
+    TIMED_OUT,
+    FAILED
+}
@@ -0,0 +1,7 @@
+package com.projects.airbnb.event;
+
+/**
+ * Published when a reload of the holiday calendars changed any of them.
+ */
+public record HolidayCalendarChangedEvent() {
+}
@@ -0,0 +1,7 @@
+package com.projects.airbnb.event;
+
+/**
+ * Published when a hotel or one of its rooms is created, updated, activated or deleted.
+ */
+public record HotelChangedEvent(Long hotelId) {
+}
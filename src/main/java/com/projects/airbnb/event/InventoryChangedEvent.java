@@ -0,0 +1,14 @@
+package com.projects.airbnb.event;
+
+import java.time.LocalDate;
+
+/**
+ * Published whenever availability or price of a hotel's inventory changes between the two dates (inclusive).
+ * {@code pricesOnly} marks changes made by the pricing job itself, which change no pricing input.
+ */
+public record InventoryChangedEvent(Long hotelId, LocalDate startDate, LocalDate endDate, boolean pricesOnly) {
+
+    public InventoryChangedEvent(Long hotelId, LocalDate startDate, LocalDate endDate) {
+        this(hotelId, startDate, endDate, false);
+    }
+}
@@ -0,0 +1,19 @@
+package com.projects.airbnb.event;
+
+import java.time.LocalDate;
+
+/**
+ * Published by the search data sources (availability index, amenity index, search-day table) once a change is
+ * visible to searches, for the stays in {@code city} overlapping the two dates (inclusive). A null city stands
+ * for every city, e.g. after a full rebuild.
+ */
+public record SearchResultsChangedEvent(String city, LocalDate startDate, LocalDate endDate) {
+
+    public static SearchResultsChangedEvent everywhere() {
+        return new SearchResultsChangedEvent(null, LocalDate.MIN, LocalDate.MAX);
+    }
+
+    public static SearchResultsChangedEvent wholeCity(String city) {
+        return new SearchResultsChangedEvent(city, LocalDate.MIN, LocalDate.MAX);
+    }
+}
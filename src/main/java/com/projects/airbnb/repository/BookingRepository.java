@@ -3,6 +3,9 @@ package com.projects.airbnb.repository;
 import com.projects.airbnb.entity.Booking;
 import com.projects.airbnb.entity.Hotel;
 import com.projects.airbnb.entity.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.time.LocalDateTime;
@@ -17,4 +20,17 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByHotelAndCreatedAtBetween(Hotel hotel, LocalDateTime startDateTime, LocalDateTime endDateTime);
 
     List<Booking> findByUser(User user);
+
+    Page<Booking> findByUser(User user, Pageable pageable);
+
+    Page<Booking> findByHotel(Hotel hotel, Pageable pageable);
+
+    // Keyset pages, newest booking first
+    List<Booking> findByUserOrderByIdDesc(User user, Limit limit);
+
+    List<Booking> findByUserAndIdLessThanOrderByIdDesc(User user, Long lastId, Limit limit);
+
+    List<Booking> findByHotelOrderByIdDesc(Hotel hotel, Limit limit);
+
+    List<Booking> findByHotelAndIdLessThanOrderByIdDesc(Hotel hotel, Long lastId, Limit limit);
 }
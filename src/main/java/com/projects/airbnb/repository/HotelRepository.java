@@ -1,13 +1,78 @@
 package com.projects.airbnb.repository;
 
+import com.projects.airbnb.dto.HotelPriceDto;
 import com.projects.airbnb.entity.Hotel;
 import com.projects.airbnb.entity.User;
+import com.projects.airbnb.search.HotelAmenities;
+import com.projects.airbnb.search.HotelCity;
+import com.projects.airbnb.search.HotelLocation;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface HotelRepository extends JpaRepository<Hotel, Long> {
     List<Hotel> findByOwner(User user);
+
+    Page<Hotel> findByIsActiveTrue(Pageable pageable);
+
+    @Query("""
+            SELECT h.id
+            FROM Hotel h
+            WHERE h.id > :afterId
+            ORDER BY h.id
+            """)
+    List<Long> findHotelIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Search hit columns only, the price is filled in by the caller
+    @Query("""
+            SELECT new com.projects.airbnb.dto.HotelPriceDto(h.id, h.name, h.city, h.photos, h.amenities, 0.0)
+            FROM Hotel h
+            WHERE h.id IN :hotelIds
+            """)
+    List<HotelPriceDto> findSearchHits(@Param("hotelIds") Collection<Long> hotelIds);
+
+    @Query("""
+            SELECT new com.projects.airbnb.search.HotelLocation(h.id, h.latitude, h.longitude)
+            FROM Hotel h
+            WHERE h.isActive = TRUE
+                AND h.latitude IS NOT NULL
+                AND h.longitude IS NOT NULL
+            """)
+    List<HotelLocation> findActiveHotelLocations();
+
+    @Query("""
+            SELECT new com.projects.airbnb.search.HotelLocation(h.id, h.latitude, h.longitude)
+            FROM Hotel h
+            WHERE h.isActive = TRUE
+                AND h.latitude BETWEEN :minLatitude AND :maxLatitude
+                AND h.longitude BETWEEN :minLongitude AND :maxLongitude
+            """)
+    List<HotelLocation> findActiveHotelLocationsIn(
+            @Param("minLatitude") Double minLatitude,
+            @Param("maxLatitude") Double maxLatitude,
+            @Param("minLongitude") Double minLongitude,
+            @Param("maxLongitude") Double maxLongitude
+    );
+
+    @Query("""
+            SELECT new com.projects.airbnb.search.HotelAmenities(h.id, h.amenities)
+            FROM Hotel h
+            WHERE h.isActive = TRUE
+            """)
+    List<HotelAmenities> findActiveHotelAmenities();
+
+    @Query("""
+            SELECT new com.projects.airbnb.search.HotelCity(h.id, h.city)
+            FROM Hotel h
+            WHERE h.isActive = TRUE
+                AND h.city IS NOT NULL
+            """)
+    List<HotelCity> findActiveHotelCities();
 }
@@ -0,0 +1,187 @@
+package com.projects.airbnb.repository;
+
+import com.projects.airbnb.dto.HotelPriceDto;
+import com.projects.airbnb.entity.Hotel;
+import com.projects.airbnb.entity.HotelSearchDay;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface HotelSearchDayRepository extends JpaRepository<HotelSearchDay, Long> {
+
+    // Room types of the city with roomsCount rooms free on every night, with their average nightly price
+    String FREE_ROOM_TYPES_IN_CITY = """
+            SELECT s.hotel.id AS hotelId, AVG(s.price) AS averagePrice
+            FROM HotelSearchDay s
+            WHERE s.city = :city
+                AND s.date BETWEEN :startDate AND :endDate
+                AND s.freeCount >= :roomsCount
+            GROUP BY s.hotel.id, s.room.id
+            HAVING COUNT(s.date) = :dateCount
+            """;
+
+    // FREE_ROOM_TYPES_IN_CITY for JDBC callers, with positional parameters city, startDate, endDate, roomsCount
+    // and dateCount; SearchAvailabilityParityTests keeps the two in step
+    String FREE_ROOM_TYPES_IN_CITY_SQL = """
+            SELECT s.hotel_id, AVG(s.price) AS average_price
+            FROM hotel_search_day s
+            WHERE s.city = ?
+                AND s.date BETWEEN ? AND ?
+                AND s.free_count >= ?
+            GROUP BY s.hotel_id, s.room_id
+            HAVING COUNT(s.date) = ?
+            """;
+
+    // A hotel is priced at its cheapest room type that is free for the whole stay, as in HotelAvailabilityIndex
+    String HOTEL_PRICES = """
+            SELECT new com.projects.airbnb.dto.HotelPriceDto(h.id, h.name, h.city, h.photos, h.amenities,
+                MIN(r.averagePrice))
+            FROM (""" + FREE_ROOM_TYPES_IN_CITY + """
+            ) r
+                JOIN Hotel h ON h.id = r.hotelId
+            WHERE h.isActive = TRUE
+            GROUP BY h.id
+            """;
+
+    @Query(value = HOTEL_PRICES + """
+            ORDER BY MIN(r.averagePrice), h.id
+            """,
+            countQuery = """
+            SELECT COUNT(DISTINCT h.id)
+            FROM (""" + FREE_ROOM_TYPES_IN_CITY + """
+            ) r
+                JOIN Hotel h ON h.id = r.hotelId
+            WHERE h.isActive = TRUE
+            """)
+    Page<HotelPriceDto> findHotelsWithAvailability(
+            @Param("city") String city,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("roomsCount") Integer roomsCount,
+            @Param("dateCount") Long dateCount,
+            Pageable pageable
+    );
+
+    // Keyset variant ordered by (price, hotel id): rows after the last seen key, without a count query.
+    // The key is the stay price in whole cents; the average can carry division noise, so it is compared
+    // within half a cent. The first page passes a negative lastCents.
+    @Query(HOTEL_PRICES + """
+            HAVING MIN(r.averagePrice) * :dateCount * 100 >= :lastCents + 0.5
+                OR (MIN(r.averagePrice) * :dateCount * 100 >= :lastCents - 0.5 AND h.id > :lastHotelId)
+            ORDER BY MIN(r.averagePrice), h.id
+            """)
+    List<HotelPriceDto> findHotelsWithAvailabilityAfter(
+            @Param("city") String city,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("roomsCount") Integer roomsCount,
+            @Param("dateCount") Long dateCount,
+            @Param("lastCents") Long lastCents,
+            @Param("lastHotelId") Long lastHotelId,
+            Limit limit
+    );
+
+    // Availability of an explicit candidate set, e.g. the hotels inside a search radius
+    @Query("""
+            SELECT new com.projects.airbnb.dto.HotelPriceDto(h.id, h.name, h.city, h.photos, h.amenities,
+                MIN(r.averagePrice))
+            FROM (
+                SELECT s.hotel.id AS hotelId, AVG(s.price) AS averagePrice
+                FROM HotelSearchDay s
+                WHERE s.hotel.id IN :hotelIds
+                    AND s.date BETWEEN :startDate AND :endDate
+                    AND s.freeCount >= :roomsCount
+                GROUP BY s.hotel.id, s.room.id
+                HAVING COUNT(s.date) = :dateCount
+            ) r
+                JOIN Hotel h ON h.id = r.hotelId
+            WHERE h.isActive = TRUE
+            GROUP BY h.id
+            """)
+    List<HotelPriceDto> findHotelsWithAvailabilityIn(
+            @Param("hotelIds") Collection<Long> hotelIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("roomsCount") Integer roomsCount,
+            @Param("dateCount") Long dateCount
+    );
+
+    // Availability of candidate hotels within one city, e.g. the hotels offering the requested amenities
+    @Query("""
+            SELECT new com.projects.airbnb.dto.HotelPriceDto(h.id, h.name, h.city, h.photos, h.amenities,
+                MIN(r.averagePrice))
+            FROM (""" + FREE_ROOM_TYPES_IN_CITY + """
+            ) r
+                JOIN Hotel h ON h.id = r.hotelId
+            WHERE h.isActive = TRUE
+                AND h.id IN :hotelIds
+            GROUP BY h.id
+            """)
+    List<HotelPriceDto> findHotelsWithAvailabilityInCity(
+            @Param("city") String city,
+            @Param("hotelIds") Collection<Long> hotelIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("roomsCount") Integer roomsCount,
+            @Param("dateCount") Long dateCount
+    );
+
+    // Cheapest stay of a hotel, with its start as days after the window start
+    interface CheapestStay {
+        Long getHotelId();
+
+        Integer getStartOffset();
+
+        Double getTotalPrice();
+    }
+
+    // Per hotel of the city, the cheapest run of :nights consecutive free nights in one room type inside the
+    // window, earliest start on ties. Rows are limited to free days, so a full frame means every night is free.
+    @Query(value = """
+            SELECT ranked.hotel_id AS "hotelId", ranked.start_offset AS "startOffset", ranked.total_price AS "totalPrice"
+            FROM (
+                SELECT stays.*,
+                    ROW_NUMBER() OVER (PARTITION BY stays.hotel_id ORDER BY stays.total_price, stays.start_offset) AS stay_rank
+                FROM (
+                    SELECT s.hotel_id,
+                        s.date - CAST(:windowStart AS DATE) AS start_offset,
+                        CAST(SUM(s.price) OVER stay AS DOUBLE PRECISION) AS total_price,
+                        COUNT(*) OVER stay AS free_nights
+                    FROM hotel_search_day s
+                        JOIN hotel h ON h.id = s.hotel_id
+                    WHERE s.city = :city
+                        AND h.is_active = TRUE
+                        AND s.date BETWEEN :windowStart AND :windowEnd
+                        AND s.free_count >= :roomsCount
+                    WINDOW stay AS (PARTITION BY s.room_id ORDER BY s.date
+                        RANGE BETWEEN CURRENT ROW AND make_interval(days => CAST(:nights AS INTEGER) - 1) FOLLOWING)
+                ) stays
+                WHERE stays.free_nights = :nights
+            ) ranked
+            WHERE ranked.stay_rank = 1
+            ORDER BY ranked.total_price, ranked.hotel_id
+            """, nativeQuery = true)
+    List<CheapestStay> findCheapestStays(
+            @Param("city") String city,
+            @Param("windowStart") LocalDate windowStart,
+            @Param("windowEnd") LocalDate windowEnd,
+            @Param("nights") Integer nights,
+            @Param("roomsCount") Integer roomsCount
+    );
+
+    List<HotelSearchDay> findByHotelAndDateBetween(Hotel hotel, LocalDate startDate, LocalDate endDate);
+
+    @Query("SELECT DISTINCT s.city FROM HotelSearchDay s WHERE s.hotel = :hotel")
+    List<String> findCitiesByHotel(@Param("hotel") Hotel hotel);
+
+    void deleteByHotel(Hotel hotel);
+}
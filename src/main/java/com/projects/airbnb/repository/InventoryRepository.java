@@ -3,19 +3,25 @@ package com.projects.airbnb.repository;
 import com.projects.airbnb.entity.Hotel;
 import com.projects.airbnb.entity.Inventory;
 import com.projects.airbnb.entity.Room;
+import com.projects.airbnb.strategy.PricingRule;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
@@ -24,6 +30,45 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
 
     boolean existsByRoomAndDate(Room room, LocalDate today);
 
+    // Seeds every day in [startDate, endDate] for all given rooms in one statement, skipping days that already exist
+    @Modifying
+    @Query(value = """
+            INSERT INTO inventory (hotel_id, room_id, date, booked_count, reserved_count, total_count,
+                                   surge_factor, price, city, closed, created_at, updated_at)
+            SELECT r.hotel_id, r.id, CAST(d AS DATE), 0, 0, r.total_count,
+                   1, r.base_price, h.city, FALSE, NOW(), NOW()
+            FROM room r
+                JOIN hotel h ON h.id = r.hotel_id
+                CROSS JOIN generate_series(CAST(:startDate AS DATE), CAST(:endDate AS DATE), INTERVAL '1 day') AS d
+            WHERE r.id IN (:roomIds)
+            ON CONFLICT (hotel_id, room_id, date) DO NOTHING
+            """, nativeQuery = true)
+    int bulkInitializeInventory(@Param("roomIds") Collection<Long> roomIds,
+                                @Param("startDate") LocalDate startDate,
+                                @Param("endDate") LocalDate endDate);
+
+    // Appends the days after each room's last inventory date up to endDate, never going back before startDate
+    @Modifying
+    @Query(value = """
+            INSERT INTO inventory (hotel_id, room_id, date, booked_count, reserved_count, total_count,
+                                   surge_factor, price, city, closed, created_at, updated_at)
+            SELECT r.hotel_id, r.id, CAST(d AS DATE), 0, 0, r.total_count,
+                   1, r.base_price, h.city, FALSE, NOW(), NOW()
+            FROM room r
+                JOIN hotel h ON h.id = r.hotel_id
+                CROSS JOIN LATERAL generate_series(
+                    GREATEST(CAST(:startDate AS DATE),
+                             COALESCE((SELECT MAX(i.date) + 1 FROM inventory i
+                                       WHERE i.hotel_id = r.hotel_id AND i.room_id = r.id),
+                                      CAST(:startDate AS DATE))),
+                    CAST(:endDate AS DATE), INTERVAL '1 day') AS d
+            WHERE r.id IN (:roomIds)
+            ON CONFLICT (hotel_id, room_id, date) DO NOTHING
+            """, nativeQuery = true)
+    int extendInventoryHorizon(@Param("roomIds") Collection<Long> roomIds,
+                               @Param("startDate") LocalDate startDate,
+                               @Param("endDate") LocalDate endDate);
+
     @Query("""
             SELECT i.hotel
             FROM Inventory i
@@ -118,6 +163,64 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
 
     List<Inventory> findByHotelAndDateBetween(Hotel hotel, LocalDate startDate, LocalDate endDate);
 
+    // The rules repriceHotel applies, in order; PricingUpdateService refuses to start database pricing when
+    // PricingService.compile uses others
+    List<PricingRule> REPRICE_HOTEL_RULES =
+            List.of(PricingRule.SURGE, PricingRule.OCCUPANCY, PricingRule.URGENCY, PricingRule.HOLIDAY);
+
+    // The rules of PricingService.compile as one statement, rounded to cents the same way; the holidays of the
+    // hotel's region are passed in
+    @Modifying
+    @Query(value = """
+            UPDATE inventory i
+            SET price = ROUND(r.base_price * i.surge_factor
+                    * CASE WHEN 5 * i.booked_count > 4 * i.total_count THEN 1.2 ELSE 1 END
+                    * CASE WHEN i.date >= :today AND i.date < :urgencyEndDate THEN 1.15 ELSE 1 END
+                    * CASE WHEN i.date = ANY(CAST(:holidays AS DATE[])) THEN 1.25 ELSE 1 END, 2),
+                updated_at = NOW()
+            FROM room r
+            WHERE r.id = i.room_id
+                AND i.hotel_id = :hotelId
+                AND i.date BETWEEN :startDate AND :endDate
+            """, nativeQuery = true)
+    int repriceHotel(@Param("hotelId") Long hotelId,
+                     @Param("startDate") LocalDate startDate,
+                     @Param("endDate") LocalDate endDate,
+                     @Param("today") LocalDate today,
+                     @Param("urgencyEndDate") LocalDate urgencyEndDate,
+                     @Param("holidays") LocalDate[] holidays);
+
+    // Server-side cursor for the price job, rooms are fetched along so they survive clearing the session
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            SELECT i
+            FROM Inventory i
+                JOIN FETCH i.room
+            WHERE i.hotel = :hotel
+                AND i.date BETWEEN :startDate AND :endDate
+            ORDER BY i.date, i.room.id
+            """)
+    Stream<Inventory> streamByHotelAndDateBetween(@Param("hotel") Hotel hotel,
+                                                  @Param("startDate") LocalDate startDate,
+                                                  @Param("endDate") LocalDate endDate);
+
+    List<Inventory> findByRoomAndDateBetween(Room room, LocalDate startDate, LocalDate endDate);
+
+    // Drops rows that went back to the room defaults, used by the sparse storage mode
+    @Modifying
+    @Query("""
+            DELETE FROM Inventory i
+            WHERE i.room.id = :roomId
+                AND i.date BETWEEN :startDate AND :endDate
+                AND i.bookedCount = 0
+                AND i.reservedCount = 0
+                AND i.surgeFactor = 1
+                AND i.closed = false
+            """)
+    int deleteDefaultInventory(@Param("roomId") Long roomId,
+                               @Param("startDate") LocalDate startDate,
+                               @Param("endDate") LocalDate endDate);
+
     List<Inventory> findByRoomOrderByRoom(Room room);
 
     @Query("""
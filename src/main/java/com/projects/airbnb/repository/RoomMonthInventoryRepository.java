@@ -0,0 +1,40 @@
+package com.projects.airbnb.repository;
+
+import com.projects.airbnb.entity.Hotel;
+import com.projects.airbnb.entity.Room;
+import com.projects.airbnb.entity.RoomMonthInventory;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RoomMonthInventoryRepository extends JpaRepository<RoomMonthInventory, Long> {
+
+    void deleteByRoom(Room room);
+
+    List<RoomMonthInventory> findByRoomOrderByMonthStart(Room room);
+
+    List<RoomMonthInventory> findByRoomIdAndMonthStartBetweenOrderByMonthStart(Long roomId,
+                                                                              LocalDate fromMonth,
+                                                                              LocalDate toMonth);
+
+    List<RoomMonthInventory> findByHotelAndMonthStartBetween(Hotel hotel, LocalDate fromMonth, LocalDate toMonth);
+
+    @Query("""
+            SELECT m
+            FROM RoomMonthInventory m
+            WHERE m.room.id = :roomId
+                AND m.monthStart BETWEEN :fromMonth AND :toMonth
+            ORDER BY m.monthStart
+            """)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<RoomMonthInventory> findAndLockByRoomAndMonthBetween(@Param("roomId") Long roomId,
+                                                              @Param("fromMonth") LocalDate fromMonth,
+                                                              @Param("toMonth") LocalDate toMonth);
+}
@@ -1,10 +1,50 @@
 package com.projects.airbnb.repository;
 
 import com.projects.airbnb.entity.Room;
+import com.projects.airbnb.search.HotelAmenities;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface RoomRepository extends JpaRepository<Room, Long> {
 
+    List<Room> findByHotelIdOrderByIdAsc(Long hotelId);
+
+    @Query("""
+            SELECT r
+            FROM Room r
+                JOIN FETCH r.hotel
+            WHERE r.id = :roomId
+            """)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Room> findAndLockById(@Param("roomId") Long roomId);
+
+    @Query("""
+            SELECT r.id
+            FROM Room r
+            WHERE r.hotel.isActive = TRUE
+                AND r.id > :afterId
+            ORDER BY r.id
+            """)
+    List<Long> findActiveRoomIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT DISTINCT r.hotel.id FROM Room r WHERE r.id IN :roomIds")
+    List<Long> findHotelIdsByRoomIds(@Param("roomIds") Collection<Long> roomIds);
+
+    @Query("""
+            SELECT new com.projects.airbnb.search.HotelAmenities(r.hotel.id, r.amenities)
+            FROM Room r
+            WHERE r.hotel.isActive = TRUE
+            """)
+    List<HotelAmenities> findActiveRoomAmenities();
+
 }
@@ -0,0 +1,121 @@
+package com.projects.airbnb.search;
+
+import com.projects.airbnb.dto.CitySuggestionDto;
+import com.projects.airbnb.event.HotelChangedEvent;
+import com.projects.airbnb.repository.HotelRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Distinct cities of the active hotels for autocomplete. Lookups binary-search a sorted array of normalized
+ * city names (lower case, accents stripped) for the prefix range and rank the range by hotel count. Hotel
+ * changes adjust the per-city counts incrementally and republish the array, which only holds one entry per city;
+ * a nightly rebuild picks up anything the events missed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CitySuggestIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final HotelRepository hotelRepository;
+
+    private final Map<Long, String> cityByHotel = new HashMap<>();
+    private final Map<String, Integer> hotelsByCity = new HashMap<>();
+
+    private volatile Entry[] entries = new Entry[0];
+
+    private record Entry(String key, String city, int hotelCount) {
+    }
+
+    public List<CitySuggestionDto> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+
+        Entry[] current = entries;
+        int low = 0;
+        int high = current.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (current[mid].key().compareTo(prefix) < 0) low = mid + 1;
+            else high = mid;
+        }
+
+        PriorityQueue<Entry> top = new PriorityQueue<>(Comparator.comparingInt(Entry::hotelCount)
+                .thenComparing(Entry::key, Comparator.reverseOrder()));
+        for (int i = low; i < current.length && current[i].key().startsWith(prefix); i++) {
+            top.add(current[i]);
+            if (top.size() > limit) top.poll();
+        }
+
+        List<CitySuggestionDto> suggestions = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            Entry entry = top.poll();
+            suggestions.add(new CitySuggestionDto(entry.city(), entry.hotelCount()));
+        }
+        Collections.reverse(suggestions);
+        return suggestions;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${search.city-suggest.rebuild-cron:0 30 3 * * *}")
+    public synchronized void build() {
+        cityByHotel.clear();
+        hotelsByCity.clear();
+        for (HotelCity hotel : hotelRepository.findActiveHotelCities()) {
+            cityByHotel.put(hotel.hotelId(), hotel.city());
+            hotelsByCity.merge(hotel.city(), 1, Integer::sum);
+        }
+        publish();
+        log.info("Built city suggestions for {} cities", hotelsByCity.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHotelChanged(HotelChangedEvent event) {
+        String city = hotelRepository.findById(event.hotelId())
+                .filter(hotel -> Boolean.TRUE.equals(hotel.getIsActive()))
+                .map(hotel -> hotel.getCity() == null || hotel.getCity().isBlank() ? null : hotel.getCity())
+                .orElse(null);
+
+        synchronized (this) {
+            String previous = city == null ? cityByHotel.remove(event.hotelId()) : cityByHotel.put(event.hotelId(), city);
+            if (Objects.equals(previous, city)) {
+                return;
+            }
+            if (previous != null) {
+                hotelsByCity.computeIfPresent(previous, (key, count) -> count == 1 ? null : count - 1);
+            }
+            if (city != null) {
+                hotelsByCity.merge(city, 1, Integer::sum);
+            }
+            publish();
+        }
+    }
+
+    private void publish() {
+        entries = hotelsByCity.entrySet().stream()
+                .map(entry -> new Entry(normalize(entry.getKey()), entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparing(Entry::key).thenComparing(Entry::city))
+                .toArray(Entry[]::new);
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
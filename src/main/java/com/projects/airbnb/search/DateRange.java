@@ -0,0 +1,15 @@
+package com.projects.airbnb.search;
+
+import java.time.LocalDate;
+
+// Inclusive range of days waiting to be re-read; ALL stands for everything a hotel has
+public record DateRange(LocalDate startDate, LocalDate endDate) {
+
+    public static final DateRange ALL = new DateRange(LocalDate.MIN, LocalDate.MAX);
+
+    public DateRange union(DateRange other) {
+        if (this == ALL || other == ALL) return ALL;
+        return new DateRange(startDate.isBefore(other.startDate) ? startDate : other.startDate,
+                endDate.isAfter(other.endDate) ? endDate : other.endDate);
+    }
+}
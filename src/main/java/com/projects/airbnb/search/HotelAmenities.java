@@ -0,0 +1,4 @@
+package com.projects.airbnb.search;
+
+public record HotelAmenities(Long hotelId, String[] amenities) {
+}
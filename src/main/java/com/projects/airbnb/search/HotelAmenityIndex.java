@@ -0,0 +1,237 @@
+package com.projects.airbnb.search;
+
+import com.projects.airbnb.entity.Hotel;
+import com.projects.airbnb.entity.Room;
+import com.projects.airbnb.event.HotelChangedEvent;
+import com.projects.airbnb.event.SearchResultsChangedEvent;
+import com.projects.airbnb.repository.HotelRepository;
+import com.projects.airbnb.repository.RoomRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Inverted index from amenity to the active hotels offering it, either on the hotel itself or on one of its
+ * rooms. Every hotel gets a dense ordinal and each amenity keeps a {@link BitSet} of ordinals, so an
+ * "all of these amenities" filter is a handful of word-wise ANDs. Updated on {@link HotelChangedEvent}
+ * (hotel and room updates) and rebuilt nightly, which also compacts the ordinals of removed hotels.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotelAmenityIndex {
+
+    private final HotelRepository hotelRepository;
+    private final RoomRepository roomRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private volatile State state;
+
+    /**
+     * Hotels having every requested amenity. Only valid for the index state it was computed from, which
+     * it keeps a reference to.
+     */
+    public static final class AmenityFilter {
+        private final State state;
+        private final BitSet hotels;
+
+        private AmenityFilter(State state, BitSet hotels) {
+            this.state = state;
+            this.hotels = hotels;
+        }
+
+        public boolean matches(Long hotelId) {
+            Integer ordinal = state.ordinals().get(hotelId);
+            return ordinal != null && hotels.get(ordinal);
+        }
+
+        public List<Long> hotelIds() {
+            return hotels.stream().mapToObj(ordinal -> state.hotelIds().get(ordinal)).toList();
+        }
+    }
+
+    public static List<String> normalize(Collection<String> amenities) {
+        if (amenities == null) {
+            return List.of();
+        }
+        return amenities.stream()
+                .filter(Objects::nonNull)
+                .map(amenity -> amenity.trim().toLowerCase(Locale.ROOT))
+                .filter(amenity -> !amenity.isEmpty())
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Filter for hotels offering all of the (at least one) amenities. Empty while the index is not built yet.
+     */
+    public Optional<AmenityFilter> findHotelsWithAll(Collection<String> amenities) {
+        if (normalize(amenities).isEmpty()) {
+            throw new IllegalArgumentException("At least one amenity is required");
+        }
+        State current = state;
+        if (current == null) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<BitSet> sets = new ArrayList<>();
+            for (String amenity : normalize(amenities)) {
+                BitSet hotels = current.hotelsByAmenity().get(amenity);
+                if (hotels == null) {
+                    return Optional.of(new AmenityFilter(current, new BitSet()));
+                }
+                sets.add(hotels);
+            }
+            // start from the rarest amenity so the copy is as sparse as possible
+            sets.sort(Comparator.comparingInt(BitSet::cardinality));
+            BitSet result = (BitSet) sets.getFirst().clone();
+            for (int i = 1; i < sets.size() && !result.isEmpty(); i++) {
+                result.and(sets.get(i));
+            }
+            return Optional.of(new AmenityFilter(current, result));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread.ofVirtual().name("amenity-index-build").start(this::rebuild);
+    }
+
+    @Scheduled(cron = "${search.amenity-index.rebuild-cron:0 20 3 * * *}")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            changedDuringRebuild.clear();
+            long start = System.currentTimeMillis();
+            State built = new State();
+
+            Map<Long, Set<String>> amenitiesByHotel = new HashMap<>();
+            Stream.concat(hotelRepository.findActiveHotelAmenities().stream(),
+                            roomRepository.findActiveRoomAmenities().stream())
+                    .forEach(row -> amenitiesByHotel.computeIfAbsent(row.hotelId(), id -> new HashSet<>())
+                            .addAll(normalize(row.amenities() == null ? List.of() : Arrays.asList(row.amenities()))));
+            amenitiesByHotel.forEach(built::set);
+
+            state = built;
+            eventPublisher.publishEvent(SearchResultsChangedEvent.everywhere());
+            // changes that raced with the build may have landed in the previous state only
+            changedDuringRebuild.forEach(hotelId -> refreshHotel(built, hotelId));
+            log.info("Built amenity index for {} hotels and {} amenities in {} ms",
+                    built.amenitiesByHotel().size(), built.hotelsByAmenity().size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to build the amenity index", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHotelChanged(HotelChangedEvent event) {
+        if (rebuilding.get()) {
+            changedDuringRebuild.add(event.hotelId());
+        }
+        State current = state;
+        if (current != null) {
+            refreshHotel(current, event.hotelId());
+        }
+    }
+
+    private void refreshHotel(State current, Long hotelId) {
+        Set<String> amenities = transactionTemplate.execute(status -> {
+            Hotel hotel = hotelRepository.findById(hotelId).orElse(null);
+            if (hotel == null || !Boolean.TRUE.equals(hotel.getIsActive())) {
+                return Set.<String>of();
+            }
+            Set<String> offered = new HashSet<>(normalize(hotel.getAmenities() == null
+                    ? List.of() : Arrays.asList(hotel.getAmenities())));
+            for (Room room : roomRepository.findByHotelIdOrderByIdAsc(hotelId)) {
+                if (room.getAmenities() != null) {
+                    offered.addAll(normalize(Arrays.asList(room.getAmenities())));
+                }
+            }
+            return offered;
+        });
+
+        boolean changed;
+        lock.writeLock().lock();
+        try {
+            Set<String> previous = current.amenitiesByHotel().getOrDefault(hotelId, Set.of());
+            changed = !previous.equals(amenities == null ? Set.of() : amenities);
+            if (amenities == null || amenities.isEmpty()) {
+                current.remove(hotelId);
+            } else {
+                current.set(hotelId, amenities);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // the index does not know the hotel's city, and amenity changes are rare enough to drop every city
+        if (changed) {
+            eventPublisher.publishEvent(SearchResultsChangedEvent.everywhere());
+        }
+    }
+
+    private record State(Map<Long, Integer> ordinals, Map<Integer, Long> hotelIds,
+                         Map<String, BitSet> hotelsByAmenity, Map<Long, Set<String>> amenitiesByHotel) {
+
+        private State() {
+            this(new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new HashMap<>(), new HashMap<>());
+        }
+
+        private void set(Long hotelId, Set<String> amenities) {
+            int ordinal = ordinals.computeIfAbsent(hotelId, id -> {
+                hotelIds.put(ordinals.size(), id);
+                return ordinals.size();
+            });
+            Set<String> previous = amenitiesByHotel.put(hotelId, Set.copyOf(amenities));
+            if (previous != null) {
+                for (String amenity : previous) {
+                    if (!amenities.contains(amenity)) clear(amenity, ordinal);
+                }
+            }
+            for (String amenity : amenities) {
+                hotelsByAmenity.computeIfAbsent(amenity, key -> new BitSet()).set(ordinal);
+            }
+        }
+
+        private void remove(Long hotelId) {
+            Set<String> previous = amenitiesByHotel.remove(hotelId);
+            Integer ordinal = ordinals.get(hotelId);
+            if (previous != null && ordinal != null) {
+                previous.forEach(amenity -> clear(amenity, ordinal));
+            }
+        }
+
+        private void clear(String amenity, int ordinal) {
+            BitSet hotels = hotelsByAmenity.get(amenity);
+            if (hotels == null) return;
+            hotels.clear(ordinal);
+            if (hotels.isEmpty()) hotelsByAmenity.remove(amenity);
+        }
+    }
+}
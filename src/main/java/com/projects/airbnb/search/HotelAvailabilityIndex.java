@@ -0,0 +1,411 @@
+package com.projects.airbnb.search;
+
+import com.projects.airbnb.entity.Hotel;
+import com.projects.airbnb.entity.Inventory;
+import com.projects.airbnb.event.HotelChangedEvent;
+import com.projects.airbnb.event.InventoryChangedEvent;
+import com.projects.airbnb.event.SearchResultsChangedEvent;
+import com.projects.airbnb.repository.HotelRepository;
+import com.projects.airbnb.service.impl.InventoryStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-process copy of the bookable inventory of every active hotel, grouped by city. Each room keeps one
+ * slot per day of the horizon (offset from the build date) with its free count and price in cents, so
+ * availability searches are answered from primitive arrays without touching the database. Each room also
+ * keeps prefix sums of its prices, so the average nightly price of a stay in one room type takes two array
+ * reads.
+ * <p>
+ * Hotels are replaced copy-on-write: writers publish {@link InventoryChangedEvent} and {@link HotelChangedEvent},
+ * the affected hotels are marked dirty and re-read from the {@link InventoryStore} by a background refresh,
+ * which then publishes {@link SearchResultsChangedEvent} for what it replaced. The whole index is rebuilt at
+ * startup and nightly, which also rolls the build date forward.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotelAvailabilityIndex {
+
+    private static final int BUILD_PAGE_SIZE = 50;
+
+    private final HotelRepository hotelRepository;
+    private final InventoryStore inventoryStore;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, DateRange> dirtyHotels = new ConcurrentHashMap<>();
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private volatile Snapshot snapshot;
+
+    @Value("${search.availability-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${inventory.horizon.days:365}")
+    private int horizonDays;
+
+    public record HotelAvailability(Long hotelId, Double averagePrice) {
+    }
+
+    public record StayAvailability(Long hotelId, LocalDate startDate, Double averagePrice) {
+    }
+
+    /**
+     * Hotels in the city having at least one room type with {@code roomsCount} rooms free on every night of
+     * [startDate, endDate], priced at the lowest average nightly price among those room types, cheapest first.
+     * This is what a booking can actually get, and what the search-day table answers in the database. Empty
+     * when the index cannot answer, in which case the caller should fall back to the database.
+     */
+    public Optional<List<HotelAvailability>> findAvailable(String city, LocalDate startDate, LocalDate endDate,
+                                                           Integer roomsCount) {
+        Snapshot current = snapshot;
+        if (!enabled || current == null) {
+            return Optional.empty();
+        }
+
+        int from = (int) ChronoUnit.DAYS.between(current.baseDate(), startDate);
+        int to = (int) ChronoUnit.DAYS.between(current.baseDate(), endDate);
+        if (from < 0 || to >= current.days() || from > to) {
+            return Optional.empty();
+        }
+
+        return Optional.of(collectAvailable(current.hotelsByCity().getOrDefault(city, Map.of()).values(),
+                from, to, roomsCount));
+    }
+
+    /**
+     * Same as {@link #findAvailable(String, LocalDate, LocalDate, Integer)} for an explicit set of hotels,
+     * e.g. the candidates of a radius search.
+     */
+    public Optional<List<HotelAvailability>> findAvailable(Collection<Long> hotelIds, LocalDate startDate,
+                                                           LocalDate endDate, Integer roomsCount) {
+        Snapshot current = snapshot;
+        if (!enabled || current == null) {
+            return Optional.empty();
+        }
+
+        int from = (int) ChronoUnit.DAYS.between(current.baseDate(), startDate);
+        int to = (int) ChronoUnit.DAYS.between(current.baseDate(), endDate);
+        if (from < 0 || to >= current.days() || from > to) {
+            return Optional.empty();
+        }
+
+        List<HotelEntry> hotels = new ArrayList<>(hotelIds.size());
+        for (Long hotelId : hotelIds) {
+            HotelEntry hotel = current.hotels().get(hotelId);
+            if (hotel != null) hotels.add(hotel);
+        }
+        return Optional.of(collectAvailable(hotels, from, to, roomsCount));
+    }
+
+    /**
+     * For every hotel in the city, the cheapest stay of {@code nights} consecutive nights in a single room type
+     * with {@code roomsCount} rooms free, lying entirely within [windowStart, windowEnd]. Hotels are scanned in
+     * parallel; cheapest stays first. Empty when the window is outside the index.
+     */
+    public Optional<List<StayAvailability>> findCheapestStays(String city, LocalDate windowStart, LocalDate windowEnd,
+                                                              int nights, Integer roomsCount) {
+        Snapshot current = snapshot;
+        if (!enabled || current == null) {
+            return Optional.empty();
+        }
+
+        int from = (int) ChronoUnit.DAYS.between(current.baseDate(), windowStart);
+        int to = (int) ChronoUnit.DAYS.between(current.baseDate(), windowEnd);
+        if (from < 0 || to >= current.days() || from > to) {
+            return Optional.empty();
+        }
+        if (to - from + 1 < nights) {
+            return Optional.of(List.of());
+        }
+
+        int required = roomsCount == null ? 1 : roomsCount;
+        List<StayAvailability> result = current.hotelsByCity().getOrDefault(city, Map.of()).values()
+                .parallelStream()
+                .map(hotel -> cheapestStay(hotel, from, to, nights, required, current.baseDate()))
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(StayAvailability::averagePrice).thenComparing(StayAvailability::hotelId))
+                .toList();
+        return Optional.of(result);
+    }
+
+    // Slides a window of the stay length over each room: a running price sum and a monotonic deque holding
+    // the minimum free count of the window, so every start day is checked in O(1)
+    private static StayAvailability cheapestStay(HotelEntry hotel, int from, int to, int nights, int required,
+                                                 LocalDate baseDate) {
+        long bestTotal = Long.MAX_VALUE;
+        int bestStart = -1;
+        int[] deque = new int[to - from + 1];
+
+        for (RoomEntry room : hotel.rooms()) {
+            short[] free = room.free();
+            int[] priceCents = room.priceCents();
+            int head = 0;
+            int tail = 0;
+            long total = 0;
+
+            for (int day = from; day <= to; day++) {
+                while (tail > head && free[deque[tail - 1]] >= free[day]) tail--;
+                deque[tail++] = day;
+                total += priceCents[day];
+                if (day - nights >= from) total -= priceCents[day - nights];
+
+                int start = day - nights + 1;
+                if (start < from) continue;
+                while (deque[head] < start) head++;
+
+                if (free[deque[head]] >= required
+                        && (total < bestTotal || total == bestTotal && start < bestStart)) {
+                    bestTotal = total;
+                    bestStart = start;
+                }
+            }
+        }
+
+        if (bestStart < 0) {
+            return null;
+        }
+        return new StayAvailability(hotel.hotelId(), baseDate.plusDays(bestStart), bestTotal / (nights * 100.0));
+    }
+
+    private static List<HotelAvailability> collectAvailable(Collection<HotelEntry> hotels, int from, int to,
+                                                            Integer roomsCount) {
+        int required = roomsCount == null ? 1 : roomsCount;
+        int nights = to - from + 1;
+        List<HotelAvailability> result = new ArrayList<>();
+
+        for (HotelEntry hotel : hotels) {
+            RoomEntry[] rooms = hotel.rooms();
+            long cheapest = Long.MAX_VALUE;
+            for (int i = 0; i < rooms.length; i++) {
+                if (hasFreeRooms(rooms[i], from, to, required)) {
+                    long[] pricePrefix = hotel.pricePrefix()[i];
+                    cheapest = Math.min(cheapest, pricePrefix[to + 1] - pricePrefix[from]);
+                }
+            }
+            if (cheapest != Long.MAX_VALUE) {
+                result.add(new HotelAvailability(hotel.hotelId(), cheapest / (nights * 100.0)));
+            }
+        }
+
+        result.sort(Comparator.comparing(HotelAvailability::averagePrice).thenComparing(HotelAvailability::hotelId));
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            Thread.ofVirtual().name("availability-index-build").start(this::rebuild);
+        }
+    }
+
+    @Scheduled(cron = "${search.availability-index.rebuild-cron:0 0 3 * * *}")
+    public void rebuild() {
+        if (!enabled || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            changedDuringRebuild.clear();
+            long start = System.currentTimeMillis();
+            LocalDate baseDate = LocalDate.now();
+            int days = horizonDays + 1;
+            Snapshot built = new Snapshot(baseDate, days, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+
+            for (int page = 0; ; page++) {
+                PageRequest pageRequest = PageRequest.of(page, BUILD_PAGE_SIZE, Sort.by("id"));
+                Page<Hotel> hotels = transactionTemplate.execute(status -> {
+                    Page<Hotel> hotelPage = hotelRepository.findByIsActiveTrue(pageRequest);
+                    hotelPage.forEach(hotel -> built.put(loadHotel(hotel, baseDate, days)));
+                    return hotelPage;
+                });
+                if (hotels == null || !hotels.hasNext()) break;
+            }
+
+            snapshot = built;
+            eventPublisher.publishEvent(SearchResultsChangedEvent.everywhere());
+            // changes that raced with the build may have landed in the previous snapshot only
+            changedDuringRebuild.forEach(hotelId -> markDirty(hotelId, null));
+            log.info("Built availability index for {} hotels in {} cities in {} ms",
+                    built.hotels().size(), built.hotelsByCity().size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to build the availability index", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        if (event.hotelId() != null) {
+            markDirty(event.hotelId(), new DateRange(event.startDate(), event.endDate()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHotelChanged(HotelChangedEvent event) {
+        markDirty(event.hotelId(), null);
+    }
+
+    @Scheduled(fixedDelayString = "${search.availability-index.refresh-delay-ms:1000}")
+    public void refreshDirtyHotels() {
+        Snapshot current = snapshot;
+        if (current == null || dirtyHotels.isEmpty()) {
+            return;
+        }
+
+        for (Long hotelId : List.copyOf(dirtyHotels.keySet())) {
+            DateRange range = dirtyHotels.remove(hotelId);
+            try {
+                List<SearchResultsChangedEvent> changes = transactionTemplate.execute(status -> refreshHotel(current, hotelId, range));
+                changes.forEach(eventPublisher::publishEvent);
+            } catch (Exception e) {
+                log.warn("Could not refresh hotel with ID: {} in the availability index, it will be retried", hotelId, e);
+                markDirty(hotelId, range);
+            }
+        }
+    }
+
+    private void markDirty(Long hotelId, DateRange range) {
+        // a null range means the whole hotel has to be reloaded
+        dirtyHotels.merge(hotelId, range == null ? DateRange.ALL : range, DateRange::union);
+        if (rebuilding.get()) {
+            changedDuringRebuild.add(hotelId);
+        }
+    }
+
+    // Replaces the hotel in the snapshot and returns the search results that may have changed with it
+    private List<SearchResultsChangedEvent> refreshHotel(Snapshot current, Long hotelId, DateRange range) {
+        Hotel hotel = hotelRepository.findById(hotelId).orElse(null);
+        HotelEntry existing = current.hotels().get(hotelId);
+        List<SearchResultsChangedEvent> changes = new ArrayList<>();
+        if (existing != null && existing.city() != null) {
+            changes.add(SearchResultsChangedEvent.wholeCity(existing.city()));
+        }
+
+        if (hotel == null || !Boolean.TRUE.equals(hotel.getIsActive())) {
+            current.remove(hotelId);
+            return changes;
+        }
+        if (existing == null || range == DateRange.ALL || !Objects.equals(existing.city(), hotel.getCity())) {
+            current.remove(hotelId);
+            current.put(loadHotel(hotel, current.baseDate(), current.days()));
+            if (hotel.getCity() != null && !hotel.getCity().equals(existing == null ? null : existing.city())) {
+                changes.add(SearchResultsChangedEvent.wholeCity(hotel.getCity()));
+            }
+            return changes;
+        }
+
+        LocalDate from = range.startDate().isBefore(current.baseDate()) ? current.baseDate() : range.startDate();
+        LocalDate lastDay = current.baseDate().plusDays(current.days() - 1L);
+        LocalDate to = range.endDate().isAfter(lastDay) ? lastDay : range.endDate();
+        if (from.isAfter(to)) {
+            return List.of();
+        }
+
+        Map<Long, RoomEntry> rooms = new LinkedHashMap<>();
+        for (RoomEntry room : existing.rooms()) {
+            rooms.put(room.roomId(), room);
+        }
+
+        Set<Long> copied = new HashSet<>();
+        for (Inventory inventory : inventoryStore.findByHotelAndDateBetween(hotel, from, to)) {
+            Long roomId = inventory.getRoom().getId();
+            RoomEntry room = rooms.get(roomId);
+            if (room == null) {
+                room = new RoomEntry(roomId, new short[current.days()], new int[current.days()]);
+                copied.add(roomId);
+            } else if (copied.add(roomId)) {
+                room = new RoomEntry(roomId, room.free().clone(), room.priceCents().clone());
+            }
+            rooms.put(roomId, room);
+            apply(room, inventory, current.baseDate());
+        }
+
+        current.put(HotelEntry.of(hotelId, hotel.getCity(), rooms.values().toArray(RoomEntry[]::new), current.days()));
+        return List.of(new SearchResultsChangedEvent(hotel.getCity(), from, to));
+    }
+
+    private HotelEntry loadHotel(Hotel hotel, LocalDate baseDate, int days) {
+        Map<Long, RoomEntry> rooms = new LinkedHashMap<>();
+        LocalDate lastDay = baseDate.plusDays(days - 1L);
+        for (Inventory inventory : inventoryStore.findByHotelAndDateBetween(hotel, baseDate, lastDay)) {
+            RoomEntry room = rooms.computeIfAbsent(inventory.getRoom().getId(),
+                    roomId -> new RoomEntry(roomId, new short[days], new int[days]));
+            apply(room, inventory, baseDate);
+        }
+        return HotelEntry.of(hotel.getId(), hotel.getCity(), rooms.values().toArray(RoomEntry[]::new), days);
+    }
+
+    private static void apply(RoomEntry room, Inventory inventory, LocalDate baseDate) {
+        int day = (int) ChronoUnit.DAYS.between(baseDate, inventory.getDate());
+        if (day < 0 || day >= room.free().length) {
+            return;
+        }
+        int free = inventory.getTotalCount() - inventory.getBookedCount() - inventory.getReservedCount();
+        room.free()[day] = Boolean.TRUE.equals(inventory.getClosed()) ? 0 : (short) Math.max(0, free);
+        room.priceCents()[day] = inventory.getPrice().movePointRight(2).intValue();
+    }
+
+    private static boolean hasFreeRooms(RoomEntry room, int from, int to, int required) {
+        short[] free = room.free();
+        for (int day = from; day <= to; day++) {
+            if (free[day] < required) return false;
+        }
+        return true;
+    }
+
+    private record RoomEntry(Long roomId, short[] free, int[] priceCents) {
+    }
+
+    private record HotelEntry(Long hotelId, String city, RoomEntry[] rooms, long[][] pricePrefix) {
+
+        // pricePrefix[i][day] is the sum of the prices of rooms[i] over the days before that offset
+        private static HotelEntry of(Long hotelId, String city, RoomEntry[] rooms, int days) {
+            long[][] pricePrefix = new long[rooms.length][days + 1];
+            for (int i = 0; i < rooms.length; i++) {
+                int[] priceCents = rooms[i].priceCents();
+                for (int day = 0; day < days; day++) {
+                    pricePrefix[i][day + 1] = pricePrefix[i][day] + priceCents[day];
+                }
+            }
+            return new HotelEntry(hotelId, city, rooms, pricePrefix);
+        }
+    }
+
+    private record Snapshot(LocalDate baseDate, int days,
+                            Map<String, Map<Long, HotelEntry>> hotelsByCity, Map<Long, HotelEntry> hotels) {
+
+        private void put(HotelEntry hotel) {
+            if (hotel.city() == null) return;
+            hotels.put(hotel.hotelId(), hotel);
+            hotelsByCity.computeIfAbsent(hotel.city(), city -> new ConcurrentHashMap<>()).put(hotel.hotelId(), hotel);
+        }
+
+        private void remove(Long hotelId) {
+            HotelEntry removed = hotels.remove(hotelId);
+            if (removed != null) {
+                hotelsByCity.getOrDefault(removed.city(), new HashMap<>()).remove(hotelId);
+            }
+        }
+    }
+}
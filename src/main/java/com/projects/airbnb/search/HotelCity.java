@@ -0,0 +1,4 @@
+package com.projects.airbnb.search;
+
+public record HotelCity(Long hotelId, String city) {
+}
@@ -0,0 +1,206 @@
+package com.projects.airbnb.search;
+
+import com.projects.airbnb.event.HotelChangedEvent;
+import com.projects.airbnb.repository.HotelRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Locations of the active hotels bucketed into a fixed latitude/longitude grid. A radius query only visits
+ * the cells overlapping the bounding box of the circle and checks the exact great-circle distance of the
+ * hotels in them. Rebuilt from the database at startup and nightly, single hotels are moved on
+ * {@link HotelChangedEvent}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotelGeoIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private final HotelRepository hotelRepository;
+
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private volatile Grid grid;
+
+    @Value("${search.geo-index.cell-degrees:0.1}")
+    private double cellDegrees;
+
+    public record HotelDistance(Long hotelId, double distanceKm) {
+    }
+
+    /**
+     * Hotels within {@code radiusKm} of the point, nearest first. Empty when the index is not built yet.
+     */
+    public Optional<List<HotelDistance>> findWithin(double latitude, double longitude, double radiusKm) {
+        Grid current = grid;
+        if (current == null) {
+            return Optional.empty();
+        }
+
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        // near the poles every longitude is within reach
+        double lonDelta = cosLat < 1e-6 ? 180 : Math.min(180, radiusKm / (KM_PER_DEGREE * cosLat));
+
+        int minRow = current.row(Math.max(-90, latitude - latDelta));
+        int maxRow = current.row(Math.min(90, latitude + latDelta));
+        int minCol = current.column(longitude - lonDelta);
+        int maxCol = current.column(longitude + lonDelta);
+        int columns = current.columns();
+        // a box wider than the globe visits every column once
+        if (maxCol - minCol >= columns) {
+            minCol = 0;
+            maxCol = columns - 1;
+        }
+
+        List<HotelDistance> result = new ArrayList<>();
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                Map<Long, HotelLocation> cell = current.cells().get(current.key(row, Math.floorMod(col, columns)));
+                if (cell == null) continue;
+
+                for (HotelLocation location : cell.values()) {
+                    double distance = distanceKm(latitude, longitude, location.latitude(), location.longitude());
+                    if (distance <= radiusKm) {
+                        result.add(new HotelDistance(location.hotelId(), distance));
+                    }
+                }
+            }
+        }
+
+        result.sort(Comparator.comparingDouble(HotelDistance::distanceKm).thenComparing(HotelDistance::hotelId));
+        return Optional.of(result);
+    }
+
+    /**
+     * Same answer as {@link #findWithin} read from the database, for requests served before the grid is built.
+     * Only the bounding box of the circle is loaded; a box crossing the antimeridian loads every longitude.
+     */
+    public List<HotelDistance> findWithinFromDatabase(double latitude, double longitude, double radiusKm) {
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        double lonDelta = cosLat < 1e-6 ? 180 : Math.min(180, radiusKm / (KM_PER_DEGREE * cosLat));
+        boolean wraps = longitude - lonDelta < -180 || longitude + lonDelta > 180;
+
+        List<HotelDistance> result = new ArrayList<>();
+        for (HotelLocation location : hotelRepository.findActiveHotelLocationsIn(
+                Math.max(-90, latitude - latDelta), Math.min(90, latitude + latDelta),
+                wraps ? -180 : longitude - lonDelta, wraps ? 180 : longitude + lonDelta)) {
+            double distance = distanceKm(latitude, longitude, location.latitude(), location.longitude());
+            if (distance <= radiusKm) {
+                result.add(new HotelDistance(location.hotelId(), distance));
+            }
+        }
+
+        result.sort(Comparator.comparingDouble(HotelDistance::distanceKm).thenComparing(HotelDistance::hotelId));
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread.ofVirtual().name("geo-index-build").start(this::rebuild);
+    }
+
+    @Scheduled(cron = "${search.geo-index.rebuild-cron:0 10 3 * * *}")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            changedDuringRebuild.clear();
+            long start = System.currentTimeMillis();
+            Grid built = new Grid(cellDegrees, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+            hotelRepository.findActiveHotelLocations().forEach(built::put);
+            grid = built;
+            // changes that raced with the build may have landed in the previous grid only
+            changedDuringRebuild.forEach(hotelId -> relocate(built, hotelId));
+            log.info("Built geo index for {} hotels in {} cells in {} ms",
+                    built.locations().size(), built.cells().size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to build the geo index", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHotelChanged(HotelChangedEvent event) {
+        if (rebuilding.get()) {
+            changedDuringRebuild.add(event.hotelId());
+        }
+        Grid current = grid;
+        if (current != null) {
+            relocate(current, event.hotelId());
+        }
+    }
+
+    private void relocate(Grid current, Long hotelId) {
+        current.remove(hotelId);
+        hotelRepository.findById(hotelId)
+                .filter(hotel -> Boolean.TRUE.equals(hotel.getIsActive())
+                        && hotel.getLatitude() != null && hotel.getLongitude() != null)
+                .ifPresent(hotel -> current.put(new HotelLocation(hotel.getId(), hotel.getLatitude(), hotel.getLongitude())));
+    }
+
+    // Haversine distance
+    private static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private record Grid(double cellDegrees, Map<Long, Map<Long, HotelLocation>> cells,
+                        Map<Long, HotelLocation> locations) {
+
+        private int columns() {
+            return (int) Math.ceil(360 / cellDegrees);
+        }
+
+        private int row(double latitude) {
+            return (int) Math.floor((latitude + 90) / cellDegrees);
+        }
+
+        private int column(double longitude) {
+            return (int) Math.floor((longitude + 180) / cellDegrees);
+        }
+
+        private long key(int row, int column) {
+            return (long) row * columns() + column;
+        }
+
+        private long keyOf(HotelLocation location) {
+            return key(row(location.latitude()), Math.floorMod(column(location.longitude()), columns()));
+        }
+
+        private void put(HotelLocation location) {
+            locations.put(location.hotelId(), location);
+            cells.computeIfAbsent(keyOf(location), key -> new ConcurrentHashMap<>()).put(location.hotelId(), location);
+        }
+
+        private void remove(Long hotelId) {
+            HotelLocation removed = locations.remove(hotelId);
+            if (removed != null) {
+                cells.computeIfPresent(keyOf(removed), (key, cell) -> {
+                    cell.remove(hotelId);
+                    return cell.isEmpty() ? null : cell;
+                });
+            }
+        }
+    }
+}
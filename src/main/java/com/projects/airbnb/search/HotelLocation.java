@@ -0,0 +1,4 @@
+package com.projects.airbnb.search;
+
+public record HotelLocation(Long hotelId, Double latitude, Double longitude) {
+}
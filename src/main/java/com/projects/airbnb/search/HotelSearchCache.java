@@ -0,0 +1,134 @@
+package com.projects.airbnb.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.projects.airbnb.dto.HotelSearchRequest;
+import com.projects.airbnb.event.SearchResultsChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of search result pages, both offset and cursor paged. Entries expire after a fixed TTL and are
+ * dropped when a {@link SearchResultsChangedEvent} touches their city and stay dates. That event comes from the
+ * search data sources once their refresh is visible, not from the write itself, so a search running between
+ * the write and the refresh cannot put a stale page back for the whole TTL.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotelSearchCache {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Set<SearchKey>> keysByCity = new ConcurrentHashMap<>();
+
+    private Cache<SearchKey, Object> cache;
+
+    @Value("${search.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${search.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${search.cache.ttl:60s}")
+    private Duration ttl;
+
+    public record SearchKey(String city, LocalDate startDate, LocalDate endDate, Integer roomsCount,
+                            List<String> amenities, Integer page, Integer size, String cursor, boolean cursorPaging) {
+
+        public static SearchKey of(HotelSearchRequest request, boolean cursorPaging) {
+            return new SearchKey(request.getCity(), request.getStartDate(), request.getEndDate(),
+                    request.getRoomsCount() == null ? 1 : request.getRoomsCount(),
+                    HotelAmenityIndex.normalize(request.getAmenities()),
+                    cursorPaging ? null : request.getPage(), request.getSize(),
+                    cursorPaging ? request.getCursor() : null, cursorPaging);
+        }
+
+        private boolean overlaps(LocalDate from, LocalDate to) {
+            return !startDate.isAfter(to) && !endDate.isBefore(from);
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                // runs atomically with the size or TTL eviction, explicit invalidations untrack their keys themselves
+                .evictionListener((SearchKey key, Object page, RemovalCause cause) -> untrack(key))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "hotelSearch");
+    }
+
+    /**
+     * Cached page for the request, computing it with {@code search} on a miss. An invalidation that
+     * arrives while the page is being computed waits for it and then removes it, so a stale page is never kept.
+     * Offset and cursor pages are kept under different keys, so each key always maps to the same page type.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(HotelSearchRequest request, boolean cursorPaging, Supplier<T> search) {
+        if (!enabled || request.getCity() == null || request.getStartDate() == null || request.getEndDate() == null) {
+            return search.get();
+        }
+        return (T) cache.get(SearchKey.of(request, cursorPaging), key -> {
+            // registered before the search runs so concurrent invalidations can see the key
+            keysByCity.computeIfAbsent(key.city(), city -> ConcurrentHashMap.newKeySet()).add(key);
+            return search.get();
+        });
+    }
+
+    @EventListener
+    public void onSearchResultsChanged(SearchResultsChangedEvent event) {
+        if (event.city() == null) {
+            invalidateAll();
+            return;
+        }
+
+        String city = event.city();
+        Set<SearchKey> keys = keysByCity.get(city);
+        if (keys == null) {
+            return;
+        }
+        int invalidated = 0;
+        for (SearchKey key : Set.copyOf(keys)) {
+            if (key.overlaps(event.startDate(), event.endDate())) {
+                untrack(key);
+                cache.invalidate(key);
+                invalidated++;
+            }
+        }
+        log.debug("Invalidated {} cached searches in {} between {} and {}", invalidated, city,
+                event.startDate(), event.endDate());
+    }
+
+    private void invalidateAll() {
+        keysByCity.clear();
+        cache.invalidateAll();
+    }
+
+    private void untrack(SearchKey key) {
+        if (key == null) {
+            return;
+        }
+        keysByCity.computeIfPresent(key.city(), (city, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+}
@@ -0,0 +1,145 @@
+package com.projects.airbnb.service;
+
+import com.projects.airbnb.dto.*;
+import com.projects.airbnb.entity.enums.SearchOutcome;
+import com.projects.airbnb.exception.BadRequestException;
+import com.projects.airbnb.exception.InvalidCursorException;
+import com.projects.airbnb.service.impl.InventoryService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Runs the sub-searches of a multi-city request concurrently, one virtual thread each. All of them share one
+ * deadline; whatever has not finished by then is cancelled and reported as timed out next to the results
+ * that did arrive. A semaphore caps how many sub-searches hit the database at once across all batches, and each
+ * sub-search runs under a statement timeout set to its remaining time, so a cancelled search also releases its
+ * connection.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BatchSearchService {
+
+    private final InventoryService inventoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${search.batch.max-searches:50}")
+    private int maxSearches;
+
+    @Value("${search.batch.default-timeout-ms:2000}")
+    private long defaultTimeoutMs;
+
+    @Value("${search.batch.max-timeout-ms:10000}")
+    private long maxTimeoutMs;
+
+    @Value("${search.batch.max-concurrency:16}")
+    private int maxConcurrency;
+
+    private ExecutorService executor;
+    private Semaphore permits;
+
+    @PostConstruct
+    void startExecutor() {
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("batch-search-", 0).factory());
+        permits = new Semaphore(maxConcurrency);
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    public BatchSearchResponseDto search(BatchSearchRequest batchSearchRequest) {
+        List<HotelSearchRequest> searches = batchSearchRequest.getSearches();
+        if (searches == null || searches.isEmpty()) {
+            throw new BadRequestException("At least one search is required");
+        }
+        if (searches.size() > maxSearches) {
+            throw new BadRequestException("A batch can contain at most " + maxSearches + " searches");
+        }
+
+        long timeoutMs = batchSearchRequest.getTimeoutMs() == null
+                ? defaultTimeoutMs
+                : Math.clamp(batchSearchRequest.getTimeoutMs(), 1, maxTimeoutMs);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        log.info("Running batch of {} searches with a deadline of {} ms", searches.size(), timeoutMs);
+
+        List<Future<CursorPage<HotelPriceDto>>> futures = new ArrayList<>(searches.size());
+        for (HotelSearchRequest search : searches) {
+            futures.add(executor.submit(() -> runSearch(search, deadline)));
+        }
+
+        List<BatchSearchResultDto> results = new ArrayList<>(searches.size());
+        List<Integer> timedOut = new ArrayList<>();
+        for (int index = 0; index < futures.size(); index++) {
+            Future<CursorPage<HotelPriceDto>> future = futures.get(index);
+            String city = searches.get(index).getCity();
+            try {
+                CursorPage<HotelPriceDto> page = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                results.add(new BatchSearchResultDto(index, city, SearchOutcome.COMPLETED, page, null));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                timedOut.add(index);
+                results.add(new BatchSearchResultDto(index, city, SearchOutcome.TIMED_OUT, null, null));
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof TimeoutException || cause instanceof QueryTimeoutException) {
+                    timedOut.add(index);
+                    results.add(new BatchSearchResultDto(index, city, SearchOutcome.TIMED_OUT, null, null));
+                } else {
+                    log.warn("Search {} of the batch for city {} failed", index, city, cause);
+                    results.add(new BatchSearchResultDto(index, city, SearchOutcome.FAILED, null, failureReason(cause)));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(pending -> pending.cancel(true));
+                throw new IllegalStateException("Batch search was interrupted", e);
+            }
+        }
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Batch of {} searches finished in {} ms, {} timed out", searches.size(), elapsedMs, timedOut.size());
+        return new BatchSearchResponseDto(results, timedOut, elapsedMs);
+    }
+
+    private CursorPage<HotelPriceDto> runSearch(HotelSearchRequest search, long deadline) throws Exception {
+        // waiting for a permit counts against the same deadline as the search itself
+        if (!permits.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+            throw new TimeoutException("No search slot became free before the deadline");
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs < 1) {
+                    throw new QueryTimeoutException("The deadline passed before the search started");
+                }
+                // the database cancels the statement at the deadline, cancelling the future alone would not
+                jdbcTemplate.execute("SET LOCAL statement_timeout = " + remainingMs);
+                return inventoryService.searchHotelsByCursor(search);
+            });
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Only validation messages go back to the client, anything else may carry SQL or driver details
+    private static String failureReason(Throwable cause) {
+        if (cause instanceof BadRequestException || cause instanceof InvalidCursorException) {
+            return cause.getMessage();
+        }
+        return "The search failed, please retry";
+    }
+}
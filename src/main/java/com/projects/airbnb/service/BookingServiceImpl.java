@@ -2,10 +2,12 @@ package com.projects.airbnb.service;
 
 import com.projects.airbnb.dto.BookingDto;
 import com.projects.airbnb.dto.BookingRequest;
+import com.projects.airbnb.dto.CursorPage;
 import com.projects.airbnb.dto.GuestDto;
 import com.projects.airbnb.dto.HotelReportDto;
 import com.projects.airbnb.entity.*;
 import com.projects.airbnb.entity.enums.BookingStatus;
+import com.projects.airbnb.event.InventoryChangedEvent;
 import com.projects.airbnb.exception.RefundProcessingException;
 import com.projects.airbnb.exception.ResourceNotFoundException;
 import com.projects.airbnb.exception.RoomUnavailableException;
@@ -13,8 +15,10 @@ import com.projects.airbnb.exception.UnAuthorizedException;
 import com.projects.airbnb.repository.*;
 import com.projects.airbnb.service.impl.BookingService;
 import com.projects.airbnb.service.impl.CheckOutService;
+import com.projects.airbnb.service.impl.InventoryStore;
 import com.projects.airbnb.strategy.PricingService;
 import com.projects.airbnb.utility.AppUtils;
+import com.projects.airbnb.utility.CursorCodec;
 import com.projects.airbnb.utility.EntityFinder;
 import com.projects.airbnb.utility.HotelField;
 import com.stripe.exception.StripeException;
@@ -26,6 +30,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -48,11 +56,12 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final RoomRepository roomRepository;
     private final HotelRepository hotelRepository;
-    private final InventoryRepository inventoryRepository;
+    private final InventoryStore inventoryStore;
     private final ModelMapper modelMapper;
     private final GuestRepository guestRepository;
     private final CheckOutService checkOutService;
     private final PricingService pricingService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${frontend.url}")
     private String frontendUrl;
@@ -80,8 +89,8 @@ public class BookingServiceImpl implements BookingService {
         Hotel existingHotel = entityFinder.findByIdOrThrow(hotelRepository, bookingRequest.getHotelId(), HotelField.HOTEL.getKey());
         Room existingRoom = entityFinder.findByIdOrThrow(roomRepository, bookingRequest.getRoomId(), HotelField.ROOM.getKey());
 
-        List<Inventory> inventoryList = inventoryRepository.findAndLockAvailableInventory(
-                existingHotel.getId(),
+        List<Inventory> inventoryList = inventoryStore.findAndLockAvailableInventory(
+                existingRoom.getId(),
                 bookingRequest.getCheckInDate(),
                 bookingRequest.getCheckOutDate(),
                 bookingRequest.getRoomsCount());
@@ -98,10 +107,12 @@ public class BookingServiceImpl implements BookingService {
         }
 
         // reserved the room/ update the booked count of inventories
-        inventoryRepository.initBooking(existingRoom.getId(),
+        inventoryStore.initBooking(existingRoom.getId(),
                 bookingRequest.getCheckInDate(),
                 bookingRequest.getCheckOutDate(),
                 bookingRequest.getRoomsCount());
+        eventPublisher.publishEvent(new InventoryChangedEvent(existingHotel.getId(),
+                bookingRequest.getCheckInDate(), bookingRequest.getCheckOutDate()));
 
         BigDecimal priceForOneRoom = pricingService.calculateTotalPrice(inventoryList);
         BigDecimal totalPrice = priceForOneRoom.multiply(BigDecimal.valueOf(bookingRequest.getRoomsCount()));
@@ -203,11 +214,13 @@ public class BookingServiceImpl implements BookingService {
                 booking.setBookingStatus(BookingStatus.CONFIRMED);
                 bookingRepository.save(booking);
 
-                inventoryRepository.findAndLockAvailableInventory(booking.getRoom().getId(), booking.getCheckInDate(),
+                inventoryStore.findAndLockAvailableInventory(booking.getRoom().getId(), booking.getCheckInDate(),
                         booking.getCheckOutDate(), booking.getRoomsCount());
 
-                inventoryRepository.confirmBooking(booking.getRoom().getId(), booking.getCheckInDate(),
+                inventoryStore.confirmBooking(booking.getRoom().getId(), booking.getCheckInDate(),
                         booking.getCheckOutDate(), booking.getRoomsCount());
+                eventPublisher.publishEvent(new InventoryChangedEvent(booking.getHotel().getId(),
+                        booking.getCheckInDate(), booking.getCheckOutDate()));
 
                 log.info("Successfully confirmed booking for Booking ID: {}", booking.getId());
             }
@@ -242,7 +255,7 @@ public class BookingServiceImpl implements BookingService {
         bookingRepository.save(booking);
         log.info("Booking ID {} marked as CANCELLED", bookingId);
 
-        inventoryRepository.findAndLockAvailableInventory(
+        inventoryStore.findAndLockAvailableInventory(
                 booking.getRoom().getId(),
                 booking.getCheckInDate(),
                 booking.getCheckOutDate(),
@@ -250,11 +263,13 @@ public class BookingServiceImpl implements BookingService {
         log.debug("Locked inventory for booking cancellation: Room ID {}, Date range: {} to {}",
                 booking.getRoom().getId(), booking.getCheckInDate(), booking.getCheckOutDate());
 
-        inventoryRepository.cancelBooking(
+        inventoryStore.cancelBooking(
                 booking.getRoom().getId(),
                 booking.getCheckInDate(),
                 booking.getCheckOutDate(),
                 booking.getRoomsCount());
+        eventPublisher.publishEvent(new InventoryChangedEvent(booking.getHotel().getId(),
+                booking.getCheckInDate(), booking.getCheckOutDate()));
         log.info("Inventory updated after cancellation for Room ID: {}", booking.getRoom().getId());
 
         // Handle Stripe refund
@@ -288,20 +303,45 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public List<BookingDto> getAllBookingByHotelId(Long hotelId)  {
+        Hotel existingHotel = findOwnedHotel(hotelId);
+
+        List<Booking> bookings = bookingRepository.findByHotel(existingHotel);
+
+        return bookings.stream()
+                .map(element -> modelMapper.map(element, BookingDto.class))
+                .toList();
+    }
+
+    @Override
+    public CursorPage<BookingDto> getAllBookingByHotelId(Long hotelId, String cursor, int size) {
+        Limit limit = Limit.of(CursorCodec.checkSize(size) + 1);
+        Hotel existingHotel = findOwnedHotel(hotelId);
+
+        List<Booking> bookings = cursor == null
+                ? bookingRepository.findByHotelOrderByIdDesc(existingHotel, limit)
+                : bookingRepository.findByHotelAndIdLessThanOrderByIdDesc(existingHotel, CursorCodec.decodeId(cursor), limit);
+
+        return toBookingPage(bookings, size);
+    }
+
+    @Override
+    public Page<BookingDto> getAllBookingByHotelId(Long hotelId, Pageable pageable) {
+        Hotel existingHotel = findOwnedHotel(hotelId);
+
+        return bookingRepository.findByHotel(existingHotel, pageable)
+                .map(element -> modelMapper.map(element, BookingDto.class));
+    }
+
+    private Hotel findOwnedHotel(Long hotelId) {
         Hotel existingHotel = entityFinder.findByIdOrThrow(hotelRepository, hotelId, "Hotel");
 
         User user = getCurrentUser();
 
-        log.info("getting all bookings for the hotel with ID: {}", hotelId);
+        log.info("getting bookings for the hotel with ID: {}", hotelId);
         if (!user.equals(existingHotel.getOwner())) {
             throw new org.springframework.security.access.AccessDeniedException("You are not the owner of hotel with ID: " + hotelId);
         }
-
-        List<Booking> bookings = bookingRepository.findByHotel(existingHotel);
-
-        return bookings.stream()
-                .map(element -> modelMapper.map(element, BookingDto.class))
-                .toList();
+        return existingHotel;
     }
 
     @Override
@@ -348,6 +388,34 @@ public class BookingServiceImpl implements BookingService {
     }
 
 
+    @Override
+    public CursorPage<BookingDto> getMyBookings(String cursor, int size) {
+        Limit limit = Limit.of(CursorCodec.checkSize(size) + 1);
+        User user = AppUtils.getCurrentUser();
+
+        List<Booking> bookings = cursor == null
+                ? bookingRepository.findByUserOrderByIdDesc(user, limit)
+                : bookingRepository.findByUserAndIdLessThanOrderByIdDesc(user, CursorCodec.decodeId(cursor), limit);
+
+        return toBookingPage(bookings, size);
+    }
+
+    @Override
+    public Page<BookingDto> getMyBookings(Pageable pageable) {
+        User user = AppUtils.getCurrentUser();
+
+        return bookingRepository.findByUser(user, pageable)
+                .map(element -> modelMapper.map(element, BookingDto.class));
+    }
+
+    // Bookings are listed newest first, so the cursor is the id of the last (oldest) booking on the page
+    private CursorPage<BookingDto> toBookingPage(List<Booking> bookings, int size) {
+        List<BookingDto> rows = bookings.stream()
+                .map(element -> modelMapper.map(element, BookingDto.class))
+                .toList();
+        return CursorCodec.toPage(rows, size, row -> CursorCodec.encode(row.getId()));
+    }
+
     public boolean hasBookingHasExpired(Booking booking) {
         return booking.getCreatedAt().plusMinutes(10).isBefore(LocalDateTime.now());
     }
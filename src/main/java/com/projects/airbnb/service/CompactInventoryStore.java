@@ -0,0 +1,221 @@
+package com.projects.airbnb.service;
+
+import com.projects.airbnb.entity.Hotel;
+import com.projects.airbnb.entity.Inventory;
+import com.projects.airbnb.entity.Room;
+import com.projects.airbnb.entity.RoomMonthInventory;
+import com.projects.airbnb.repository.RoomMonthInventoryRepository;
+import com.projects.airbnb.repository.RoomRepository;
+import com.projects.airbnb.service.impl.InventoryStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Packs a room's month into a single {@link RoomMonthInventory} row. Booking operations lock the month rows
+ * and apply the same per-day conditions as the row-per-day UPDATE statements in InventoryRepository.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "inventory.storage-mode", havingValue = "compact")
+public class CompactInventoryStore implements InventoryStore {
+
+    private final RoomMonthInventoryRepository roomMonthInventoryRepository;
+    private final RoomRepository roomRepository;
+
+    @Override
+    public int initializeRooms(Collection<Long> roomIds, LocalDate startDate, LocalDate endDate) {
+        int created = 0;
+        for (Room room : roomRepository.findAllById(roomIds)) {
+            // same month locks as booking, so seeding cannot overwrite a concurrent booking's counts; months
+            // that do not exist yet are guarded by unique_room_month instead
+            Map<LocalDate, RoomMonthInventory> months = lockMonths(room.getId(), startDate, endDate)
+                    .stream()
+                    .collect(Collectors.toMap(RoomMonthInventory::getMonthStart, Function.identity()));
+
+            for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+                RoomMonthInventory month = months.computeIfAbsent(monthOf(date), start -> new RoomMonthInventory(room, start));
+                int day = date.getDayOfMonth() - 1;
+                if (isSet(month.getPresentMask(), day)) continue;
+
+                month.setPresentMask(month.getPresentMask() | (1 << day));
+                month.getTotalCount()[day] = room.getTotalCount().shortValue();
+                month.getSurgeHundredths()[day] = 100;
+                month.getPriceCents()[day] = toCents(room.getBasePrice());
+                created++;
+            }
+            roomMonthInventoryRepository.saveAll(months.values());
+        }
+        return created;
+    }
+
+    @Override
+    public int extendHorizon(Collection<Long> roomIds, LocalDate startDate, LocalDate endDate) {
+        // seeding already skips present days, so appending the tail is the same operation
+        return initializeRooms(roomIds, startDate, endDate);
+    }
+
+    @Override
+    public void deleteByRoom(Room room) {
+        roomMonthInventoryRepository.deleteByRoom(room);
+    }
+
+    @Override
+    public List<Inventory> findByRoom(Room room) {
+        List<Inventory> inventoryList = new ArrayList<>();
+        for (RoomMonthInventory month : roomMonthInventoryRepository.findByRoomOrderByMonthStart(room)) {
+            for (int day = 0; day < month.getTotalCount().length; day++) {
+                if (isSet(month.getPresentMask(), day)) {
+                    inventoryList.add(toInventory(month, day));
+                }
+            }
+        }
+        return inventoryList;
+    }
+
+    @Override
+    public List<Inventory> findByHotelAndDateBetween(Hotel hotel, LocalDate startDate, LocalDate endDate) {
+        List<Inventory> inventoryList = new ArrayList<>();
+        List<RoomMonthInventory> months = roomMonthInventoryRepository
+                .findByHotelAndMonthStartBetween(hotel, monthOf(startDate), monthOf(endDate));
+        forEachPresentDay(months, startDate, endDate, (month, day) -> inventoryList.add(toInventory(month, day)));
+        return inventoryList;
+    }
+
+    @Override
+    public void savePrices(List<Inventory> inventoryList) {
+        Map<Long, NavigableMap<LocalDate, BigDecimal>> pricesByRoom = new HashMap<>();
+        for (Inventory inventory : inventoryList) {
+            pricesByRoom.computeIfAbsent(inventory.getRoom().getId(), id -> new TreeMap<>())
+                    .put(inventory.getDate(), inventory.getPrice());
+        }
+
+        pricesByRoom.forEach((roomId, sorted) -> {
+            List<RoomMonthInventory> months = roomMonthInventoryRepository.findByRoomIdAndMonthStartBetweenOrderByMonthStart(
+                    roomId, monthOf(sorted.firstKey()), monthOf(sorted.lastKey()));
+            for (RoomMonthInventory month : months) {
+                sorted.subMap(month.getMonthStart(), true, month.getMonthStart().plusMonths(1), false)
+                        .forEach((date, price) -> month.getPriceCents()[date.getDayOfMonth() - 1] = toCents(price));
+            }
+            roomMonthInventoryRepository.saveAll(months);
+        });
+    }
+
+    @Override
+    public List<Inventory> findAndLockAvailableInventory(Long roomId, LocalDate startDate, LocalDate endDate, int roomsCount) {
+        List<Inventory> inventoryList = new ArrayList<>();
+        forEachPresentDay(lockMonths(roomId, startDate, endDate), startDate, endDate, (month, day) -> {
+            if (!isSet(month.getClosedMask(), day) && available(month, day) >= roomsCount) {
+                inventoryList.add(toInventory(month, day));
+            }
+        });
+        return inventoryList;
+    }
+
+    @Override
+    public void lockBeforeUpdate(Long roomId, LocalDate startDate, LocalDate endDate) {
+        lockMonths(roomId, startDate, endDate);
+    }
+
+    @Override
+    public void initBooking(Long roomId, LocalDate startDate, LocalDate endDate, int numberOfRooms) {
+        forEachPresentDay(lockMonths(roomId, startDate, endDate), startDate, endDate, (month, day) -> {
+            if (!isSet(month.getClosedMask(), day) && available(month, day) >= numberOfRooms) {
+                month.getReservedCount()[day] += (short) numberOfRooms;
+            }
+        });
+    }
+
+    @Override
+    public void confirmBooking(Long roomId, LocalDate startDate, LocalDate endDate, int numberOfRooms) {
+        forEachPresentDay(lockMonths(roomId, startDate, endDate), startDate, endDate, (month, day) -> {
+            if (!isSet(month.getClosedMask(), day)
+                    && month.getTotalCount()[day] - month.getBookedCount()[day] >= numberOfRooms
+                    && month.getReservedCount()[day] >= numberOfRooms) {
+                month.getReservedCount()[day] -= (short) numberOfRooms;
+                month.getBookedCount()[day] += (short) numberOfRooms;
+            }
+        });
+    }
+
+    @Override
+    public void cancelBooking(Long roomId, LocalDate startDate, LocalDate endDate, int numberOfRooms) {
+        forEachPresentDay(lockMonths(roomId, startDate, endDate), startDate, endDate, (month, day) -> {
+            if (!isSet(month.getClosedMask(), day)
+                    && month.getTotalCount()[day] - month.getBookedCount()[day] >= numberOfRooms) {
+                month.getBookedCount()[day] -= (short) numberOfRooms;
+            }
+        });
+    }
+
+    @Override
+    public void updateInventory(Long roomId, LocalDate startDate, LocalDate endDate, boolean closed, BigDecimal surgeFactor) {
+        int surge = surgeFactor.movePointRight(2).setScale(0, RoundingMode.HALF_UP).intValueExact();
+        forEachPresentDay(lockMonths(roomId, startDate, endDate), startDate, endDate, (month, day) -> {
+            month.getSurgeHundredths()[day] = surge;
+            month.setClosedMask(closed ? month.getClosedMask() | (1 << day) : month.getClosedMask() & ~(1 << day));
+        });
+    }
+
+    private List<RoomMonthInventory> lockMonths(Long roomId, LocalDate startDate, LocalDate endDate) {
+        return roomMonthInventoryRepository.findAndLockByRoomAndMonthBetween(roomId, monthOf(startDate), monthOf(endDate));
+    }
+
+    private void forEachPresentDay(List<RoomMonthInventory> months, LocalDate startDate, LocalDate endDate,
+                                   DayVisitor visitor) {
+        for (RoomMonthInventory month : months) {
+            LocalDate monthEnd = month.getMonthStart().plusMonths(1).minusDays(1);
+            LocalDate from = startDate.isAfter(month.getMonthStart()) ? startDate : month.getMonthStart();
+            LocalDate to = endDate.isBefore(monthEnd) ? endDate : monthEnd;
+            if (from.isAfter(to)) continue;
+
+            for (int day = from.getDayOfMonth() - 1; day < to.getDayOfMonth(); day++) {
+                if (isSet(month.getPresentMask(), day)) {
+                    visitor.visit(month, day);
+                }
+            }
+        }
+    }
+
+    private Inventory toInventory(RoomMonthInventory month, int day) {
+        return Inventory.builder()
+                .hotel(month.getHotel())
+                .room(month.getRoom())
+                .date(month.getMonthStart().plusDays(day))
+                .totalCount((int) month.getTotalCount()[day])
+                .bookedCount((int) month.getBookedCount()[day])
+                .reservedCount((int) month.getReservedCount()[day])
+                .surgeFactor(BigDecimal.valueOf(month.getSurgeHundredths()[day], 2))
+                .price(BigDecimal.valueOf(month.getPriceCents()[day], 2))
+                .closed(isSet(month.getClosedMask(), day))
+                .build();
+    }
+
+    private static int available(RoomMonthInventory month, int day) {
+        return month.getTotalCount()[day] - month.getBookedCount()[day] - month.getReservedCount()[day];
+    }
+
+    private static boolean isSet(int mask, int day) {
+        return (mask >>> day & 1) == 1;
+    }
+
+    private static int toCents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).intValueExact();
+    }
+
+    private static LocalDate monthOf(LocalDate date) {
+        return date.withDayOfMonth(1);
+    }
+
+    @FunctionalInterface
+    private interface DayVisitor {
+        void visit(RoomMonthInventory month, int day);
+    }
+}
@@ -0,0 +1,134 @@
+package com.projects.airbnb.service;
+
+import com.projects.airbnb.dto.HotelActivationStatusDto;
+import com.projects.airbnb.entity.Hotel;
+import com.projects.airbnb.entity.Room;
+import com.projects.airbnb.entity.enums.ActivationStatus;
+import com.projects.airbnb.repository.RoomRepository;
+import com.projects.airbnb.service.impl.InventoryService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seeds the inventory of a freshly activated hotel in the background, committing one chunk of rooms at a time
+ * so that large properties neither time out the request nor hold a connection for the whole run.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HotelActivationService {
+
+    private final RoomRepository roomRepository;
+    private final InventoryService inventoryService;
+
+    private final Map<Long, ActivationProgress> activations = new ConcurrentHashMap<>();
+
+    @Value("${inventory.activation.chunk-size:10}")
+    private int chunkSize;
+
+    @Value("${inventory.activation.threads:2}")
+    private int threads;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void startExecutor() {
+        executor = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("hotel-activation-", 0).factory());
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    public HotelActivationStatusDto startActivation(Long hotelId) {
+        List<Room> rooms = roomRepository.findByHotelIdOrderByIdAsc(hotelId);
+
+        ActivationProgress progress = activations.compute(hotelId, (id, current) ->
+                current != null && current.status == ActivationStatus.RUNNING ? current : new ActivationProgress(rooms.size()));
+
+        if (progress.submitted.compareAndSet(false, true)) {
+            log.info("Queued inventory activation for hotel with ID: {} covering {} rooms", hotelId, rooms.size());
+            executor.submit(() -> seedRooms(hotelId, rooms, progress));
+        } else {
+            log.info("Activation for hotel with ID: {} is already running", hotelId);
+        }
+        return progress.toDto(hotelId);
+    }
+
+    public HotelActivationStatusDto getStatus(Hotel hotel) {
+        ActivationProgress progress = activations.get(hotel.getId());
+        if (progress != null) {
+            return progress.toDto(hotel.getId());
+        }
+
+        // Nothing tracked since the last restart: an active hotel was seeded by an earlier run
+        int totalRooms = hotel.getRooms().size();
+        boolean active = Boolean.TRUE.equals(hotel.getIsActive());
+        return new HotelActivationStatusDto(hotel.getId(),
+                active ? ActivationStatus.COMPLETED : ActivationStatus.NOT_STARTED,
+                totalRooms, active ? totalRooms : 0, active ? 0 : totalRooms, 0L, null, null);
+    }
+
+    private void seedRooms(Long hotelId, List<Room> rooms, ActivationProgress progress) {
+        try {
+            for (int from = 0; from < rooms.size(); from += chunkSize) {
+                List<Room> chunk = rooms.subList(from, Math.min(from + chunkSize, rooms.size()));
+
+                // each call commits on its own, so finished chunks survive a later failure
+                int created = inventoryService.initializeRoomsForAYear(chunk);
+
+                progress.inventoryCreated.addAndGet(created);
+                progress.roomsDone.addAndGet(chunk.size());
+                log.debug("Hotel with ID: {} activation progress {}/{} rooms",
+                        hotelId, progress.roomsDone.get(), progress.totalRooms);
+            }
+            progress.finish(ActivationStatus.COMPLETED);
+            log.info("Finished inventory activation for hotel with ID: {}, {} rows created",
+                    hotelId, progress.inventoryCreated.get());
+        } catch (Exception e) {
+            progress.finish(ActivationStatus.FAILED);
+            log.error("Inventory activation failed for hotel with ID: {} after {} rooms",
+                    hotelId, progress.roomsDone.get(), e);
+        }
+    }
+
+    private static final class ActivationProgress {
+        private final int totalRooms;
+        private final AtomicBoolean submitted = new AtomicBoolean();
+        private final AtomicInteger roomsDone = new AtomicInteger();
+        private final AtomicLong inventoryCreated = new AtomicLong();
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile LocalDateTime finishedAt;
+        private volatile ActivationStatus status = ActivationStatus.RUNNING;
+
+        private ActivationProgress(int totalRooms) {
+            this.totalRooms = totalRooms;
+        }
+
+        private void finish(ActivationStatus finalStatus) {
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+
+        private HotelActivationStatusDto toDto(Long hotelId) {
+            int done = roomsDone.get();
+            return new HotelActivationStatusDto(hotelId, status, totalRooms, done, totalRooms - done,
+                    inventoryCreated.get(), startedAt, finishedAt);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.projects.airbnb.service;
+
+import com.projects.airbnb.entity.Hotel;
+import com.projects.airbnb.entity.HotelSearchDay;
+import com.projects.airbnb.entity.Inventory;
+import com.projects.airbnb.event.HotelChangedEvent;
+import com.projects.airbnb.event.InventoryChangedEvent;
+import com.projects.airbnb.event.SearchResultsChangedEvent;
+import com.projects.airbnb.repository.HotelRepository;
+import com.projects.airbnb.repository.HotelSearchDayRepository;
+import com.projects.airbnb.search.DateRange;
+import com.projects.airbnb.service.impl.InventoryStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains {@link HotelSearchDay}, the per-room-type-per-day search rows, from the inventory changes published
+ * by bookings, inventory updates and pricing. Changes only mark the hotel's range dirty after commit; a
+ * background refresh re-reads each dirty hotel once per round, so a pricing run that touches many ranges of a
+ * hotel costs one refresh instead of one transaction per range. Each committed refresh publishes
+ * {@link SearchResultsChangedEvent} so cached results read from the old rows are dropped. At startup every hotel is
+ * marked, so inventory that existed before the table (or changed while the application was down) is searchable.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HotelSearchDayService {
+
+    private static final int BACKFILL_CHUNK = 1000;
+
+    private final HotelRepository hotelRepository;
+    private final HotelSearchDayRepository hotelSearchDayRepository;
+    private final InventoryStore inventoryStore;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, DateRange> dirtyHotels = new ConcurrentHashMap<>();
+
+    @Value("${inventory.horizon.days:365}")
+    private int horizonDays;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        long hotels = 0;
+        Long afterId = 0L;
+        while (true) {
+            List<Long> hotelIds = hotelRepository.findHotelIdsAfter(afterId, PageRequest.of(0, BACKFILL_CHUNK));
+            if (hotelIds.isEmpty()) {
+                break;
+            }
+            hotelIds.forEach(hotelId -> markDirty(hotelId, DateRange.ALL));
+            hotels += hotelIds.size();
+            afterId = hotelIds.getLast();
+        }
+        log.info("Marked {} hotels for a search day refresh", hotels);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        if (event.hotelId() != null) {
+            markDirty(event.hotelId(), new DateRange(event.startDate(), event.endDate()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHotelChanged(HotelChangedEvent event) {
+        // the city or the set of rooms may have changed, rewrite the whole horizon
+        markDirty(event.hotelId(), DateRange.ALL);
+    }
+
+    @Scheduled(fixedDelayString = "${search.search-days.refresh-delay-ms:1000}")
+    public void refreshDirtyHotels() {
+        for (Long hotelId : List.copyOf(dirtyHotels.keySet())) {
+            DateRange range = dirtyHotels.remove(hotelId);
+            try {
+                List<SearchResultsChangedEvent> changes = transactionTemplate.execute(status -> refreshHotel(hotelId, range));
+                // published after the commit, so no search can cache the old rows again
+                changes.forEach(eventPublisher::publishEvent);
+            } catch (Exception e) {
+                log.warn("Could not refresh the search days of hotel with ID: {}, it will be retried", hotelId, e);
+                markDirty(hotelId, range);
+            }
+        }
+    }
+
+    @Transactional
+    public void deleteByHotel(Hotel hotel) {
+        hotelSearchDayRepository.deleteByHotel(hotel);
+    }
+
+    private void refresh(Hotel hotel, LocalDate startDate, LocalDate endDate) {
+        LocalDate today = LocalDate.now();
+        LocalDate from = startDate.isBefore(today) ? today : startDate;
+        LocalDate horizonEnd = today.plusDays(horizonDays);
+        LocalDate to = endDate.isAfter(horizonEnd) ? horizonEnd : endDate;
+        if (from.isAfter(to)) {
+            return;
+        }
+
+        Map<RoomDay, HotelSearchDay> existing = hotelSearchDayRepository.findByHotelAndDateBetween(hotel, from, to)
+                .stream()
+                .collect(Collectors.toMap(row -> new RoomDay(row.getRoom().getId(), row.getDate()), Function.identity()));
+
+        List<HotelSearchDay> rows = new ArrayList<>();
+        for (Inventory inventory : inventoryStore.findByHotelAndDateBetween(hotel, from, to)) {
+            HotelSearchDay row = existing.remove(new RoomDay(inventory.getRoom().getId(), inventory.getDate()));
+            if (row == null) {
+                row = new HotelSearchDay(hotel, inventory.getRoom(), inventory.getDate());
+            }
+            int free = inventory.getTotalCount() - inventory.getBookedCount() - inventory.getReservedCount();
+            row.setCity(hotel.getCity());
+            row.setFreeCount(Boolean.TRUE.equals(inventory.getClosed()) ? 0 : Math.max(0, free));
+            row.setPrice(inventory.getPrice());
+            rows.add(row);
+        }
+
+        hotelSearchDayRepository.saveAll(rows);
+        // room-days that lost their inventory are no longer searchable
+        hotelSearchDayRepository.deleteAll(existing.values());
+        log.debug("Refreshed {} search days for hotel with ID: {} from {} to {}", rows.size(), hotel.getId(), from, to);
+    }
+
+    private List<SearchResultsChangedEvent> refreshHotel(Long hotelId, DateRange range) {
+        Hotel hotel = hotelRepository.findById(hotelId).orElse(null);
+        if (hotel == null) {
+            return List.of();
+        }
+        // the rows still carry the city the hotel was searchable in
+        List<SearchResultsChangedEvent> changes = new ArrayList<>();
+        hotelSearchDayRepository.findCitiesByHotel(hotel).stream()
+                .filter(city -> !city.equals(hotel.getCity()))
+                .forEach(city -> changes.add(SearchResultsChangedEvent.wholeCity(city)));
+
+        if (!Boolean.TRUE.equals(hotel.getIsActive()) || hotel.getCity() == null) {
+            hotelSearchDayRepository.deleteByHotel(hotel);
+            if (hotel.getCity() != null) {
+                changes.add(SearchResultsChangedEvent.wholeCity(hotel.getCity()));
+            }
+            return changes;
+        }
+        if (range == DateRange.ALL) {
+            refresh(hotel, LocalDate.now(), LocalDate.now().plusDays(horizonDays));
+            changes.add(SearchResultsChangedEvent.wholeCity(hotel.getCity()));
+        } else {
+            refresh(hotel, range.startDate(), range.endDate());
+            changes.add(new SearchResultsChangedEvent(hotel.getCity(), range.startDate(), range.endDate()));
+        }
+        return changes;
+    }
+
+    private void markDirty(Long hotelId, DateRange range) {
+        dirtyHotels.merge(hotelId, range, DateRange::union);
+    }
+
+    private record RoomDay(Long roomId, LocalDate date) {
+    }
+}
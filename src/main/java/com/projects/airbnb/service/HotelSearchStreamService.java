@@ -0,0 +1,201 @@
+package com.projects.airbnb.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projects.airbnb.dto.HotelPriceDto;
+import com.projects.airbnb.dto.HotelSearchRequest;
+import com.projects.airbnb.exception.BadRequestException;
+import com.projects.airbnb.exception.ServiceUnavailableException;
+import com.projects.airbnb.repository.HotelRepository;
+import com.projects.airbnb.repository.HotelSearchDayRepository;
+import com.projects.airbnb.search.HotelAmenityIndex;
+import com.projects.airbnb.search.HotelAmenityIndex.AmenityFilter;
+import com.projects.airbnb.search.HotelAvailabilityIndex;
+import com.projects.airbnb.search.HotelAvailabilityIndex.HotelAvailability;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes search hits to the response while they are read, one JSON document per line (or per server-sent
+ * event), so memory stays flat no matter how many hotels match. Hits come from the availability index when it
+ * can answer, like {@code /hotels/search}, and otherwise from a server-side JDBC cursor over the search-day
+ * table. PostgreSQL only honours the fetch size inside a transaction, hence the (always rolled back)
+ * transaction around the query.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HotelSearchStreamService {
+
+    // HotelSearchDayRepository.HOTEL_PRICES in SQL, ordered as the search results
+    private static final String SEARCH_SQL = """
+            SELECT h.id, h.name, h.city, h.photos, h.amenities, MIN(r.average_price) AS price
+            FROM (""" + HotelSearchDayRepository.FREE_ROOM_TYPES_IN_CITY_SQL + """
+            ) r
+                JOIN hotel h ON h.id = r.hotel_id
+            WHERE h.is_active = TRUE
+            %s
+            GROUP BY h.id
+            ORDER BY price, h.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final HotelRepository hotelRepository;
+    private final HotelAvailabilityIndex hotelAvailabilityIndex;
+    private final HotelAmenityIndex hotelAmenityIndex;
+
+    @Value("${search.stream.fetch-size:200}")
+    private int fetchSize;
+
+    @Value("${search.stream.flush-every:50}")
+    private int flushEvery;
+
+    /**
+     * Validates the request and resolves the amenity filter before the response is committed, so those
+     * failures still reach the client as a 400 or 503; the returned body runs the search.
+     */
+    public StreamingResponseBody stream(HotelSearchRequest hotelSearchRequest, boolean serverSentEvents) {
+        if (hotelSearchRequest.getStartDate() == null || hotelSearchRequest.getEndDate() == null
+                || hotelSearchRequest.getStartDate().isAfter(hotelSearchRequest.getEndDate())) {
+            throw new BadRequestException("Start and end dates are required, start before end");
+        }
+        Optional<AmenityFilter> withAmenities = HotelAmenityIndex.normalize(hotelSearchRequest.getAmenities()).isEmpty()
+                ? Optional.empty()
+                : Optional.of(hotelAmenityIndex.findHotelsWithAll(hotelSearchRequest.getAmenities())
+                .orElseThrow(() -> new ServiceUnavailableException("Amenity search is not available yet, please retry shortly")));
+
+        return out -> {
+            long start = System.currentTimeMillis();
+            HitWriter writer = new HitWriter(out, serverSentEvents);
+            int roomsCount = hotelSearchRequest.getRoomsCount() == null ? 1 : hotelSearchRequest.getRoomsCount();
+
+            Optional<List<HotelAvailability>> indexed = hotelAvailabilityIndex.findAvailable(
+                    hotelSearchRequest.getCity(), hotelSearchRequest.getStartDate(), hotelSearchRequest.getEndDate(), roomsCount);
+            if (indexed.isPresent()) {
+                streamIndexed(indexed.get(), withAmenities, writer);
+            } else {
+                streamFromTable(hotelSearchRequest, roomsCount, withAmenities, writer);
+            }
+            flush(out);
+            log.info("Streamed {} hotels for {} city in {} ms", writer.written, hotelSearchRequest.getCity(),
+                    System.currentTimeMillis() - start);
+        };
+    }
+
+    // Index matches are already sorted, only the display columns are read, fetchSize hotels at a time
+    private void streamIndexed(List<HotelAvailability> matches, Optional<AmenityFilter> withAmenities, HitWriter writer) {
+        List<HotelAvailability> filtered = withAmenities
+                .map(filter -> matches.stream().filter(match -> filter.matches(match.hotelId())).toList())
+                .orElse(matches);
+
+        for (int from = 0; from < filtered.size(); from += fetchSize) {
+            List<HotelAvailability> slice = filtered.subList(from, Math.min(from + fetchSize, filtered.size()));
+            Map<Long, HotelPriceDto> hits = hotelRepository.findSearchHits(slice.stream().map(HotelAvailability::hotelId).toList())
+                    .stream()
+                    .collect(Collectors.toMap(HotelPriceDto::getHotelId, Function.identity()));
+            for (HotelAvailability match : slice) {
+                HotelPriceDto hit = hits.get(match.hotelId());
+                if (hit != null) {
+                    hit.setPrice(match.averagePrice());
+                    writer.write(hit);
+                }
+            }
+        }
+    }
+
+    private void streamFromTable(HotelSearchRequest hotelSearchRequest, int roomsCount,
+                                 Optional<AmenityFilter> withAmenities, HitWriter writer) {
+        long dateCount = ChronoUnit.DAYS.between(hotelSearchRequest.getStartDate(), hotelSearchRequest.getEndDate()) + 1;
+        String sql = SEARCH_SQL.formatted(withAmenities.isPresent() ? "AND h.id = ANY (?)" : "");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql);
+                statement.setFetchSize(fetchSize);
+                statement.setString(1, hotelSearchRequest.getCity());
+                statement.setDate(2, Date.valueOf(hotelSearchRequest.getStartDate()));
+                statement.setDate(3, Date.valueOf(hotelSearchRequest.getEndDate()));
+                statement.setInt(4, roomsCount);
+                statement.setLong(5, dateCount);
+                if (withAmenities.isPresent()) {
+                    // the amenity candidates are filtered by the database, not row by row here
+                    statement.setArray(6, connection.createArrayOf("bigint", withAmenities.get().hotelIds().toArray()));
+                }
+                return statement;
+            }, (ResultSet rs) -> {
+                writer.write(toHotelPrice(rs));
+            });
+        });
+    }
+
+    private static HotelPriceDto toHotelPrice(ResultSet rs) throws SQLException {
+        return new HotelPriceDto(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getString("city"),
+                toStrings(rs.getArray("photos")),
+                toStrings(rs.getArray("amenities")),
+                rs.getDouble("price"));
+    }
+
+    private static String[] toStrings(Array array) throws SQLException {
+        return array == null ? null : (String[]) array.getArray();
+    }
+
+    private final class HitWriter {
+        private final OutputStream out;
+        private final boolean serverSentEvents;
+        private int written;
+
+        private HitWriter(OutputStream out, boolean serverSentEvents) {
+            this.out = out;
+            this.serverSentEvents = serverSentEvents;
+        }
+
+        private void write(HotelPriceDto hit) {
+            try {
+                if (serverSentEvents) out.write("data: ".getBytes(StandardCharsets.UTF_8));
+                out.write(objectMapper.writeValueAsBytes(hit));
+                out.write((serverSentEvents ? "\n\n" : "\n").getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                // the client went away, abort the query instead of reading the rest of the cursor
+                throw new UncheckedIOException(e);
+            }
+            // the first hit goes out immediately, later ones in batches
+            if (++written == 1 || written % flushEvery == 0) {
+                flush(out);
+            }
+        }
+    }
+
+    private static void flush(OutputStream out) {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package com.projects.airbnb.service;
 
+import com.projects.airbnb.dto.HotelActivationStatusDto;
 import com.projects.airbnb.dto.HotelDto;
 import com.projects.airbnb.dto.HotelInfoDto;
 import com.projects.airbnb.dto.RoomDto;
 import com.projects.airbnb.entity.Hotel;
 import com.projects.airbnb.entity.Room;
 import com.projects.airbnb.entity.User;
+import com.projects.airbnb.event.HotelChangedEvent;
 import com.projects.airbnb.exception.ResourceNotFoundException;
 import com.projects.airbnb.exception.UnAuthorizedException;
 import com.projects.airbnb.repository.HotelRepository;
@@ -18,6 +20,7 @@ import com.projects.airbnb.utility.HotelField;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -36,6 +39,9 @@ public class HotelServiceImpl implements HotelService {
     private final EntityFinder entityFinder;
     private final InventoryService inventoryService;
     private final RoomRepository roomRepository;
+    private final HotelActivationService hotelActivationService;
+    private final HotelSearchDayService hotelSearchDayService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public HotelDto createNewHotel(HotelDto hotelDto) {
@@ -48,6 +54,7 @@ public class HotelServiceImpl implements HotelService {
         hotel.setOwner(currentUser);
 
         hotel = hotelRepository.save(hotel);
+        eventPublisher.publishEvent(new HotelChangedEvent(hotel.getId()));
 
         log.info("Created a new hotel with ID: {}", hotel.getId());
         return modelMapper.map(hotel, HotelDto.class);
@@ -82,6 +89,7 @@ public class HotelServiceImpl implements HotelService {
         existingHotel.setId(hotelId);
 
         Hotel savedHotel = hotelRepository.save(existingHotel);
+        eventPublisher.publishEvent(new HotelChangedEvent(hotelId));
         return modelMapper.map(savedHotel, HotelDto.class);
     }
 
@@ -97,17 +105,18 @@ public class HotelServiceImpl implements HotelService {
             throw new UnAuthorizedException("This user does not own this hotel with ID: " + hotelId);
         }
 
+        hotelSearchDayService.deleteByHotel(existingHotel);
         for (Room room : existingHotel.getRooms()) {
             inventoryService.deleteAllInventories(room);
             roomRepository.deleteById(room.getId());
         }
         hotelRepository.deleteById(hotelId);
+        eventPublisher.publishEvent(new HotelChangedEvent(hotelId));
     }
 
 
-    @Transactional
     @Override
-    public void activateHotel(Long hotelId) {
+    public HotelActivationStatusDto activateHotel(Long hotelId) {
         log.info("Activating the hotel with ID: {}", hotelId);
         Hotel existingHotel = entityFinder.findByIdOrThrow(hotelRepository, hotelId, HotelField.HOTEL.getKey());
 
@@ -118,11 +127,24 @@ public class HotelServiceImpl implements HotelService {
         }
 
         existingHotel.setIsActive(true);
+        hotelRepository.save(existingHotel);
+        eventPublisher.publishEvent(new HotelChangedEvent(hotelId));
 
-        // assuming only do it once
-        for (Room room : existingHotel.getRooms()) {
-            inventoryService.initializeRoomForAYear(room);
+        // inventory is seeded in the background, days that already exist are skipped
+        return hotelActivationService.startActivation(hotelId);
+    }
+
+    @Override
+    public HotelActivationStatusDto getActivationStatus(Long hotelId) {
+        Hotel existingHotel = entityFinder.findByIdOrThrow(hotelRepository, hotelId, HotelField.HOTEL.getKey());
+
+        User user = AppUtils.getCurrentUser();
+
+        if (!user.equals(existingHotel.getOwner())) {
+            throw new UnAuthorizedException("This user does not own this hotel with ID: " + hotelId);
         }
+
+        return hotelActivationService.getStatus(existingHotel);
     }
 
     // public
@@ -0,0 +1,110 @@
+package com.projects.airbnb.service;
+
+import com.projects.airbnb.event.InventoryChangedEvent;
+import com.projects.airbnb.repository.RoomRepository;
+import com.projects.airbnb.service.impl.InventoryStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the bookable window of every active room at a fixed length by appending the trailing days
+ * that fell out of the horizon since the last run. The appended days are announced with an
+ * {@link InventoryChangedEvent} so they get priced and become searchable.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryHorizonService {
+
+    private final RoomRepository roomRepository;
+    private final InventoryStore inventoryStore;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong lastRunMillis = new AtomicLong();
+    private final AtomicLong lastRunRows = new AtomicLong();
+
+    // last day every active room has inventory for, null until the first run of this instance
+    private volatile LocalDate extendedThrough;
+
+    @Value("${inventory.horizon.days:365}")
+    private int horizonDays;
+
+    @Value("${inventory.horizon.chunk-size:500}")
+    private int chunkSize;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("inventory.horizon.last.duration", lastRunMillis, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .description("Wall-clock time of the last inventory horizon run")
+                .register(meterRegistry);
+        Gauge.builder("inventory.horizon.last.rows", lastRunRows, AtomicLong::get)
+                .description("Inventory rows written by the last inventory horizon run")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The last day the inventory is known to reach. Before the first run the previous day's run is assumed,
+     * one day short of the horizon.
+     */
+    public LocalDate extendedThrough() {
+        LocalDate current = extendedThrough;
+        return current == null ? LocalDate.now().plusDays(horizonDays - 1) : current;
+    }
+
+    @Scheduled(cron = "${inventory.horizon.cron:0 30 2 * * *}")
+    public void extendHorizon() {
+        LocalDate startDate = LocalDate.now();
+        LocalDate endDate = startDate.plusDays(horizonDays);
+        // without an earlier run here the rooms may end anywhere, so announce the whole window
+        LocalDate firstNewDay = extendedThrough == null ? startDate : extendedThrough.plusDays(1);
+
+        long start = System.nanoTime();
+        long rows = 0;
+        long rooms = 0;
+        Long afterId = 0L;
+
+        while (true) {
+            List<Long> roomIds = roomRepository.findActiveRoomIdsAfter(afterId, PageRequest.of(0, chunkSize));
+            if (roomIds.isEmpty()) {
+                break;
+            }
+
+            Integer created = transactionTemplate.execute(status -> {
+                int written = inventoryStore.extendHorizon(roomIds, startDate, endDate);
+                // delivered after the chunk commits
+                if (written > 0 && !firstNewDay.isAfter(endDate)) {
+                    roomRepository.findHotelIdsByRoomIds(roomIds).forEach(hotelId ->
+                            eventPublisher.publishEvent(new InventoryChangedEvent(hotelId, firstNewDay, endDate)));
+                }
+                return written;
+            });
+            rows += created == null ? 0 : created;
+            rooms += roomIds.size();
+            afterId = roomIds.getLast();
+        }
+
+        extendedThrough = endDate;
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        lastRunMillis.set(elapsedMillis);
+        lastRunRows.set(rows);
+        log.info("Extended inventory horizon to {} for {} active rooms: {} rows written in {} ms",
+                endDate, rooms, rows, elapsedMillis);
+    }
+}
@@ -1,91 +1,409 @@
 package com.projects.airbnb.service;
 
+import com.projects.airbnb.dto.CursorPage;
+import com.projects.airbnb.dto.FlexibleHotelDto;
+import com.projects.airbnb.dto.FlexibleSearchRequest;
 import com.projects.airbnb.dto.HotelPriceDto;
 import com.projects.airbnb.dto.HotelSearchRequest;
 import com.projects.airbnb.dto.InventoryDto;
+import com.projects.airbnb.dto.NearbyHotelDto;
+import com.projects.airbnb.dto.NearbySearchRequest;
 import com.projects.airbnb.dto.UpdateInventoryRequestDto;
-import com.projects.airbnb.entity.Inventory;
 import com.projects.airbnb.entity.Room;
 import com.projects.airbnb.entity.User;
+import com.projects.airbnb.event.InventoryChangedEvent;
+import com.projects.airbnb.exception.BadRequestException;
+import com.projects.airbnb.exception.InvalidCursorException;
 import com.projects.airbnb.exception.ResourceNotFoundException;
-import com.projects.airbnb.repository.HotelMinPriceRepository;
-import com.projects.airbnb.repository.InventoryRepository;
+import com.projects.airbnb.exception.ServiceUnavailableException;
+import com.projects.airbnb.repository.HotelRepository;
+import com.projects.airbnb.repository.HotelSearchDayRepository;
 import com.projects.airbnb.repository.RoomRepository;
+import com.projects.airbnb.search.HotelAmenityIndex;
+import com.projects.airbnb.search.HotelAmenityIndex.AmenityFilter;
+import com.projects.airbnb.search.HotelAvailabilityIndex;
+import com.projects.airbnb.search.HotelAvailabilityIndex.HotelAvailability;
+import com.projects.airbnb.search.HotelAvailabilityIndex.StayAvailability;
+import com.projects.airbnb.search.HotelGeoIndex;
+import com.projects.airbnb.search.HotelGeoIndex.HotelDistance;
+import com.projects.airbnb.search.HotelSearchCache;
 import com.projects.airbnb.service.impl.InventoryService;
+import com.projects.airbnb.service.impl.InventoryStore;
 import com.projects.airbnb.utility.AppUtils;
+import com.projects.airbnb.utility.CursorCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class InventoryServiceImpl implements InventoryService {
 
-    private final InventoryRepository inventoryRepository;
+    private static final int IN_LIST_CHUNK = 1000;
+
+    private final InventoryStore inventoryStore;
     private final ModelMapper modelMapper;
-    private final HotelMinPriceRepository hotelMinPriceRepository;
     private final RoomRepository roomRepository;
+    private final HotelRepository hotelRepository;
+    private final HotelSearchDayRepository hotelSearchDayRepository;
+    private final HotelAvailabilityIndex hotelAvailabilityIndex;
+    private final HotelSearchCache hotelSearchCache;
+    private final HotelGeoIndex hotelGeoIndex;
+    private final HotelAmenityIndex hotelAmenityIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventory.horizon.days:365}")
+    private int horizonDays;
+
+    @Value("${search.geo-index.max-radius-km:100}")
+    private double maxRadiusKm;
 
+    @Value("${search.flexible.max-window-days:90}")
+    private int maxFlexibleWindowDays;
+
+    @Transactional
     @Override
     public void initializeRoomForAYear(Room room) {
+        initializeRoomsForAYear(List.of(room));
+    }
+
+    @Transactional
+    @Override
+    public int initializeRoomsForAYear(List<Room> rooms) {
+        if (rooms == null || rooms.isEmpty()) {
+            return 0;
+        }
         LocalDate today = LocalDate.now();
-        LocalDate endDate = today.plusYears(1);
+        // the same window InventoryHorizonService keeps extended
+        LocalDate endDate = today.plusDays(horizonDays);
+
+        List<Long> roomIds = rooms.stream()
+                .map(Room::getId)
+                .toList();
 
-        for (; !today.isAfter(endDate); today = today.plusDays(1)) {
-            boolean exists = inventoryRepository.existsByRoomAndDate(room, today);
-            if (exists) continue;
+        long start = System.nanoTime();
+        int created = inventoryStore.initializeRooms(roomIds, today, endDate);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
 
-            Inventory inventory = Inventory.builder()
-                    .hotel(room.getHotel())
-                    .room(room)
-                    .bookedCount(0)
-                    .reservedCount(0)
-                    .city(room.getHotel().getCity())
-                    .date(today)
-                    .price(room.getBasePrice())
-                    .surgeFactor(BigDecimal.ONE)
-                    .totalCount(room.getTotalCount())
-                    .closed(false)
-                    .build();
-            inventoryRepository.save(inventory);
-        }
+        log.info("Seeded {} inventory rows for {} rooms from {} to {} in {} ms ({} ms/room)",
+                created, roomIds.size(), today, endDate, elapsedMillis, elapsedMillis / roomIds.size());
+
+        rooms.stream()
+                .map(room -> room.getHotel().getId())
+                .distinct()
+                .forEach(hotelId -> eventPublisher.publishEvent(new InventoryChangedEvent(hotelId, today, endDate)));
+        return created;
     }
 
     @Override
     public void deleteAllInventories(Room room) {
         log.info("Deleting the inventories of room with ID: {}", room.getId());
-        inventoryRepository.deleteByRoom(room);
+        inventoryStore.deleteByRoom(room);
     }
 
     @Override
     public Page<HotelPriceDto> searchHotels(HotelSearchRequest hotelSearchRequest) {
         log.info("Searching hotels for {} city, from {} to {}", hotelSearchRequest.getCity(),
                 hotelSearchRequest.getStartDate(), hotelSearchRequest.getEndDate());
+        CursorCodec.checkPage(hotelSearchRequest.getPage());
+        CursorCodec.checkSize(hotelSearchRequest.getSize());
+        return hotelSearchCache.get(hotelSearchRequest, false, () -> findHotels(hotelSearchRequest));
+    }
+
+    @Override
+    public CursorPage<HotelPriceDto> searchHotelsByCursor(HotelSearchRequest hotelSearchRequest) {
+        log.info("Searching hotels for {} city, from {} to {} after cursor {}", hotelSearchRequest.getCity(),
+                hotelSearchRequest.getStartDate(), hotelSearchRequest.getEndDate(), hotelSearchRequest.getCursor());
+        CursorCodec.checkSize(hotelSearchRequest.getSize());
+        return hotelSearchCache.get(hotelSearchRequest, true, () -> findHotelsAfterCursor(hotelSearchRequest));
+    }
+
+    private CursorPage<HotelPriceDto> findHotelsAfterCursor(HotelSearchRequest hotelSearchRequest) {
+        int size = hotelSearchRequest.getSize();
+        int roomsCount = hotelSearchRequest.getRoomsCount() == null ? 1 : hotelSearchRequest.getRoomsCount();
+        long dateCount = ChronoUnit.DAYS.between(hotelSearchRequest.getStartDate(), hotelSearchRequest.getEndDate()) + 1;
+
+        // results are ordered by (stay price in cents, hotel id); the cursor holds that key of the last row
+        // returned, in whole cents so the index and the database compare it exactly
+        long lastCents = -1;
+        long lastHotelId = 0;
+        if (hotelSearchRequest.getCursor() != null) {
+            String[] sortKey = CursorCodec.decode(hotelSearchRequest.getCursor(), 2);
+            try {
+                lastCents = Long.parseLong(sortKey[0]);
+                lastHotelId = Long.parseLong(sortKey[1]);
+            } catch (NumberFormatException e) {
+                throw new InvalidCursorException("Invalid page cursor: " + hotelSearchRequest.getCursor());
+            }
+        }
+
+        Optional<List<HotelAvailability>> indexed = findIndexedMatches(hotelSearchRequest, roomsCount);
+
+        List<HotelPriceDto> rows;
+        if (indexed.isPresent()) {
+            List<HotelAvailability> matches = indexed.get();
+            rows = new ArrayList<>();
+            // hotels deleted since the index was built resolve to nothing, keep slicing until the extra row is in
+            int next = firstAfter(matches, dateCount, lastCents, lastHotelId);
+            while (rows.size() <= size && next < matches.size()) {
+                int to = Math.min(next + size + 1 - rows.size(), matches.size());
+                rows.addAll(toHotelPrices(matches.subList(next, to)));
+                next = to;
+            }
+        } else {
+            rows = hotelSearchDayRepository.findHotelsWithAvailabilityAfter(
+                    hotelSearchRequest.getCity(),
+                    hotelSearchRequest.getStartDate(),
+                    hotelSearchRequest.getEndDate(),
+                    roomsCount,
+                    dateCount,
+                    lastCents,
+                    lastHotelId,
+                    Limit.of(size + 1));
+        }
+
+        return CursorCodec.toPage(rows, size,
+                row -> CursorCodec.encode(stayCents(row.getPrice(), dateCount), row.getHotelId()));
+    }
+
+    // Nightly prices are whole cents, so the average times the nights is the exact stay price
+    private static long stayCents(double averagePrice, long dateCount) {
+        return Math.round(averagePrice * dateCount * 100);
+    }
+
+    /**
+     * Matches from the in-memory availability index, narrowed to the hotels offering every requested amenity.
+     * Empty when the availability index cannot answer and there is no amenity filter, so the caller can page
+     * in the database instead.
+     */
+    private Optional<List<HotelAvailability>> findIndexedMatches(HotelSearchRequest hotelSearchRequest, int roomsCount) {
+        Optional<List<HotelAvailability>> indexed = hotelAvailabilityIndex.findAvailable(
+                hotelSearchRequest.getCity(),
+                hotelSearchRequest.getStartDate(),
+                hotelSearchRequest.getEndDate(),
+                roomsCount);
+
+        if (HotelAmenityIndex.normalize(hotelSearchRequest.getAmenities()).isEmpty()) {
+            return indexed;
+        }
+        AmenityFilter withAmenities = hotelAmenityIndex.findHotelsWithAll(hotelSearchRequest.getAmenities())
+                .orElseThrow(() -> new ServiceUnavailableException("Amenity search is not available yet, please retry shortly"));
+
+        if (indexed.isPresent()) {
+            return Optional.of(indexed.get().stream()
+                    .filter(match -> withAmenities.matches(match.hotelId()))
+                    .toList());
+        }
+
+        // the search-day table knows nothing about amenities, check the amenity candidates of the city there
+        // and page in memory
+        List<Long> candidates = withAmenities.hotelIds();
+        if (candidates.isEmpty()) {
+            return Optional.of(List.of());
+        }
+        return Optional.of(findAvailableIn(hotelSearchRequest.getCity(), candidates,
+                        hotelSearchRequest.getStartDate(), hotelSearchRequest.getEndDate(), roomsCount)
+                .stream()
+                .map(hit -> new HotelAvailability(hit.getHotelId(), hit.getPrice()))
+                .sorted(Comparator.comparing(HotelAvailability::averagePrice).thenComparing(HotelAvailability::hotelId))
+                .toList());
+    }
+
+    // Index of the first match sorting after (lastCents, lastHotelId); matches are sorted by that key
+    private static int firstAfter(List<HotelAvailability> matches, long dateCount, long lastCents, long lastHotelId) {
+        int low = 0;
+        int high = matches.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            HotelAvailability match = matches.get(mid);
+            int compared = Long.compare(stayCents(match.averagePrice(), dateCount), lastCents);
+            if (compared < 0 || compared == 0 && match.hotelId() <= lastHotelId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private Page<HotelPriceDto> findHotels(HotelSearchRequest hotelSearchRequest) {
         Pageable pageable = PageRequest.of(hotelSearchRequest.getPage(), hotelSearchRequest.getSize());
         long dateCount = ChronoUnit.DAYS.between(hotelSearchRequest.getStartDate(), hotelSearchRequest.getEndDate()) + 1;
 
+        int roomsCount = hotelSearchRequest.getRoomsCount() == null ? 1 : hotelSearchRequest.getRoomsCount();
+
+        Optional<List<HotelAvailability>> indexed = findIndexedMatches(hotelSearchRequest, roomsCount);
+        if (indexed.isPresent()) {
+            return toHotelPricePage(indexed.get(), pageable);
+        }
 
-        return hotelMinPriceRepository.findHotelWithAvailableInventory(
+        return hotelSearchDayRepository.findHotelsWithAvailability(
                 hotelSearchRequest.getCity(),
                 hotelSearchRequest.getStartDate(),
                 hotelSearchRequest.getEndDate(),
-                hotelSearchRequest.getRoomsCount(),
+                roomsCount,
                 dateCount,
                 pageable);
     }
 
+    @Override
+    public List<NearbyHotelDto> searchNearbyHotels(NearbySearchRequest nearbySearchRequest) {
+        Double latitude = nearbySearchRequest.getLatitude();
+        Double longitude = nearbySearchRequest.getLongitude();
+        Double radiusKm = nearbySearchRequest.getRadiusKm();
+        log.info("Searching hotels within {} km of ({}, {}), from {} to {}", radiusKm, latitude, longitude,
+                nearbySearchRequest.getStartDate(), nearbySearchRequest.getEndDate());
+
+        if (latitude == null || longitude == null || Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+            throw new BadRequestException("A valid latitude and longitude are required");
+        }
+        if (radiusKm == null || radiusKm <= 0 || radiusKm > maxRadiusKm) {
+            throw new BadRequestException("Radius must be between 0 and " + maxRadiusKm + " km");
+        }
+        if (nearbySearchRequest.getStartDate() == null || nearbySearchRequest.getEndDate() == null
+                || nearbySearchRequest.getStartDate().isAfter(nearbySearchRequest.getEndDate())) {
+            throw new BadRequestException("Start and end dates are required, start before end");
+        }
+        int size = CursorCodec.checkSize(nearbySearchRequest.getSize());
+
+        List<HotelDistance> inRadius = hotelGeoIndex.findWithin(latitude, longitude, radiusKm)
+                .orElseGet(() -> hotelGeoIndex.findWithinFromDatabase(latitude, longitude, radiusKm));
+        if (inRadius.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Double> distances = inRadius.stream()
+                .collect(Collectors.toMap(HotelDistance::hotelId, HotelDistance::distanceKm));
+        int roomsCount = nearbySearchRequest.getRoomsCount() == null ? 1 : nearbySearchRequest.getRoomsCount();
+
+        // radius first, availability only for the hotels inside it
+        List<HotelPriceDto> available = hotelAvailabilityIndex.findAvailable(distances.keySet(),
+                        nearbySearchRequest.getStartDate(), nearbySearchRequest.getEndDate(), roomsCount)
+                .map(this::toHotelPrices)
+                .orElseGet(() -> findAvailableIn(null, distances.keySet(),
+                        nearbySearchRequest.getStartDate(), nearbySearchRequest.getEndDate(), roomsCount));
+
+        return available.stream()
+                .map(hit -> new NearbyHotelDto(hit, distances.get(hit.getHotelId())))
+                .sorted(Comparator.comparing(NearbyHotelDto::getDistanceKm))
+                .limit(size)
+                .toList();
+    }
+
+    @Override
+    public List<FlexibleHotelDto> searchFlexibleHotels(FlexibleSearchRequest flexibleSearchRequest) {
+        log.info("Searching {} night stays in {} city between {} and {}", flexibleSearchRequest.getNights(),
+                flexibleSearchRequest.getCity(), flexibleSearchRequest.getWindowStart(), flexibleSearchRequest.getWindowEnd());
+
+        if (flexibleSearchRequest.getWindowStart() == null || flexibleSearchRequest.getWindowEnd() == null) {
+            throw new BadRequestException("Window start and end dates are required");
+        }
+        if (flexibleSearchRequest.getNights() == null || flexibleSearchRequest.getNights() < 1) {
+            throw new BadRequestException("Nights must be greater than zero");
+        }
+        long windowDays = ChronoUnit.DAYS.between(flexibleSearchRequest.getWindowStart(), flexibleSearchRequest.getWindowEnd()) + 1;
+        if (windowDays < 1 || windowDays > maxFlexibleWindowDays) {
+            throw new BadRequestException("Search window must span between 1 and " + maxFlexibleWindowDays + " days");
+        }
+        int size = CursorCodec.checkSize(flexibleSearchRequest.getSize());
+
+        LocalDate windowStart = flexibleSearchRequest.getWindowStart();
+        int nights = flexibleSearchRequest.getNights();
+        int roomsCount = flexibleSearchRequest.getRoomsCount() == null ? 1 : flexibleSearchRequest.getRoomsCount();
+        // the search-day table answers windows the index does not cover, and requests before it is built
+        List<StayAvailability> stays = hotelAvailabilityIndex.findCheapestStays(
+                        flexibleSearchRequest.getCity(), windowStart, flexibleSearchRequest.getWindowEnd(), nights, roomsCount)
+                .orElseGet(() -> hotelSearchDayRepository.findCheapestStays(
+                                flexibleSearchRequest.getCity(), windowStart, flexibleSearchRequest.getWindowEnd(), nights, roomsCount)
+                        .stream()
+                        .map(stay -> new StayAvailability(stay.getHotelId(), windowStart.plusDays(stay.getStartOffset()),
+                                stay.getTotalPrice() / nights))
+                        .toList());
+
+        if (!HotelAmenityIndex.normalize(flexibleSearchRequest.getAmenities()).isEmpty()) {
+            AmenityFilter withAmenities = hotelAmenityIndex.findHotelsWithAll(flexibleSearchRequest.getAmenities())
+                    .orElseThrow(() -> new ServiceUnavailableException("Amenity search is not available yet, please retry shortly"));
+            stays = stays.stream()
+                    .filter(stay -> withAmenities.matches(stay.hotelId()))
+                    .toList();
+        }
+
+        List<StayAvailability> page = stays.subList(0, Math.min(size, stays.size()));
+        Map<Long, HotelPriceDto> hits = hotelRepository.findSearchHits(page.stream().map(StayAvailability::hotelId).toList())
+                .stream()
+                .collect(Collectors.toMap(HotelPriceDto::getHotelId, Function.identity()));
+
+        int lastNight = nights - 1;
+        return page.stream()
+                .filter(stay -> hits.containsKey(stay.hotelId()))
+                .map(stay -> {
+                    HotelPriceDto hit = hits.get(stay.hotelId());
+                    hit.setPrice(stay.averagePrice());
+                    return new FlexibleHotelDto(hit, stay.startDate(), stay.startDate().plusDays(lastNight));
+                })
+                .toList();
+    }
+
+    // Availability of a candidate set from the search-day table, IN_LIST_CHUNK ids per query; a null city
+    // checks the candidates wherever they are
+    private List<HotelPriceDto> findAvailableIn(String city, Collection<Long> hotelIds, LocalDate startDate,
+                                                LocalDate endDate, int roomsCount) {
+        long dateCount = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        List<Long> ids = List.copyOf(hotelIds);
+        List<HotelPriceDto> available = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_LIST_CHUNK, ids.size()));
+            available.addAll(city == null
+                    ? hotelSearchDayRepository.findHotelsWithAvailabilityIn(chunk, startDate, endDate, roomsCount, dateCount)
+                    : hotelSearchDayRepository.findHotelsWithAvailabilityInCity(city, chunk, startDate, endDate, roomsCount, dateCount));
+        }
+        return available;
+    }
+
+    private Page<HotelPriceDto> toHotelPricePage(List<HotelAvailability> matches, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        return new PageImpl<>(toHotelPrices(matches.subList(from, to)), pageable, matches.size());
+    }
+
+    private List<HotelPriceDto> toHotelPrices(List<HotelAvailability> slice) {
+        Map<Long, HotelPriceDto> hits = hotelRepository.findSearchHits(slice.stream().map(HotelAvailability::hotelId).toList())
+                .stream()
+                .collect(Collectors.toMap(HotelPriceDto::getHotelId, Function.identity()));
+
+        return slice.stream()
+                .filter(match -> hits.containsKey(match.hotelId()))
+                .map(match -> {
+                    HotelPriceDto hit = hits.get(match.hotelId());
+                    hit.setPrice(match.averagePrice());
+                    return hit;
+                })
+                .toList();
+    }
+
     @Override
     public List<InventoryDto> getAllInventoryByRoom(Long roomId) {
         log.info("Getting All inventory by room for room with ID: {}", roomId);
@@ -97,7 +415,7 @@ public class InventoryServiceImpl implements InventoryService {
             throw new AccessDeniedException("You are not the owner of room with ID: " + roomId);
         }
 
-        return inventoryRepository.findByRoomOrderByRoom(room)
+        return inventoryStore.findByRoom(room)
                 .stream()
                 .map(element -> modelMapper.map(element, InventoryDto.class))
                 .toList();
@@ -125,7 +443,7 @@ public class InventoryServiceImpl implements InventoryService {
         }
 
         log.info("[LOCKING] Attempting to lock inventory records for update...");
-        inventoryRepository.getInventoryAndLockBeforeUpdate(
+        inventoryStore.lockBeforeUpdate(
                 roomId,
                 updateInventoryRequestDto.getStartDate(),
                 updateInventoryRequestDto.getEndDate()
@@ -136,7 +454,7 @@ public class InventoryServiceImpl implements InventoryService {
         log.info("[UPDATING INVENTORY] Setting closed: {}, surgeFactor: {}",
                 updateInventoryRequestDto.getClosed(), updateInventoryRequestDto.getSurgeFactor());
 
-        inventoryRepository.updateInventory(
+        inventoryStore.updateInventory(
                 roomId,
                 updateInventoryRequestDto.getStartDate(),
                 updateInventoryRequestDto.getEndDate(),
@@ -144,6 +462,9 @@ public class InventoryServiceImpl implements InventoryService {
                 updateInventoryRequestDto.getSurgeFactor()
         );
 
+        eventPublisher.publishEvent(new InventoryChangedEvent(room.getHotel().getId(),
+                updateInventoryRequestDto.getStartDate(), updateInventoryRequestDto.getEndDate()));
+
         log.info("[SUCCESS] Inventory updated successfully for Room ID: {}", roomId);
     }
 
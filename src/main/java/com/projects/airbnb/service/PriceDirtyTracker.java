@@ -0,0 +1,114 @@
+package com.projects.airbnb.service;
+
+import com.projects.airbnb.event.HolidayCalendarChangedEvent;
+import com.projects.airbnb.event.HotelChangedEvent;
+import com.projects.airbnb.event.InventoryChangedEvent;
+import com.projects.airbnb.strategy.PricingPipeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hotel-days whose dynamic price may be stale since the hotel was last priced: bookings, cancellations and
+ * inventory updates mark their dates, hotel and room changes (base price, region, rooms added or removed)
+ * mark the whole hotel, a changed holiday calendar marks everything, and the days that entered the urgency
+ * window or the pricing window since the hotel's last pricing count as dirty too. Marks are kept per hotel-day
+ * rather than per room-day, since every room of a hotel is repriced with the same rules. Hotels are drained
+ * one at a time, so a run that stops half-way leaves the rest dirty for the next one. Nothing survives a
+ * restart, the first run after startup reprices everything.
+ */
+@Component
+public class PriceDirtyTracker {
+
+    // day offsets of the per-hotel bit sets are counted from here, earlier days are never priced again
+    private final long originDay = LocalDate.now().toEpochDay();
+
+    private final Map<Long, BitSet> dirtyByHotel = new HashMap<>();
+    private final Map<Long, PricedWindow> pricedByHotel = new HashMap<>();
+
+    private record PricedWindow(long firstDay, long lastDay) {
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        if (event.hotelId() == null || event.pricesOnly()) {
+            return;
+        }
+        mark(event.hotelId(), event.startDate(), event.endDate());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHotelChanged(HotelChangedEvent event) {
+        markHotel(event.hotelId());
+    }
+
+    @EventListener
+    public void onHolidayCalendarChanged(HolidayCalendarChangedEvent event) {
+        markAll();
+    }
+
+    public synchronized void mark(Long hotelId, LocalDate startDate, LocalDate endDate) {
+        long from = Math.max(startDate.toEpochDay(), originDay) - originDay;
+        long to = endDate.toEpochDay() - originDay;
+        if (to >= from) {
+            dirtyByHotel.computeIfAbsent(hotelId, id -> new BitSet()).set((int) from, (int) to + 1);
+        }
+    }
+
+    // forgetting when the hotel was priced makes all of its days dirty
+    public synchronized void markHotel(Long hotelId) {
+        pricedByHotel.remove(hotelId);
+        dirtyByHotel.remove(hotelId);
+    }
+
+    public synchronized void markAll() {
+        pricedByHotel.clear();
+        dirtyByHotel.clear();
+    }
+
+    /**
+     * Takes the dirty days of a hotel about to be priced from {@code today} to {@code endDate}, as offsets
+     * from {@code today}. If the pricing fails the caller has to {@link #markHotel} it again.
+     */
+    public synchronized BitSet drain(Long hotelId, LocalDate today, LocalDate endDate) {
+        long first = today.toEpochDay();
+        long last = endDate.toEpochDay();
+        int days = (int) (last - first) + 1;
+        BitSet dirty = new BitSet(days);
+
+        PricedWindow priced = pricedByHotel.put(hotelId, new PricedWindow(first, last));
+        BitSet marked = dirtyByHotel.remove(hotelId);
+        int shift = (int) (first - originDay);
+        // marks past the window, e.g. days appended ahead of the inventory horizon, wait for a later run
+        if (marked != null && marked.length() > shift + days) {
+            BitSet later = marked.get(0, marked.length());
+            later.clear(0, shift + days);
+            dirtyByHotel.put(hotelId, later);
+        }
+        if (priced == null) {
+            dirty.set(0, days);
+            return dirty;
+        }
+
+        // the days that moved into the urgency window
+        long enteredFrom = Math.max(first, priced.firstDay() + PricingPipeline.URGENCY_DAYS);
+        long enteredTo = Math.min(last + 1, first + PricingPipeline.URGENCY_DAYS);
+        if (enteredTo > enteredFrom) {
+            dirty.set((int) (enteredFrom - first), (int) (enteredTo - first));
+        }
+        // and the days that moved into the priced window
+        long newFrom = Math.max(first, priced.lastDay() + 1);
+        if (last >= newFrom) {
+            dirty.set((int) (newFrom - first), days);
+        }
+        if (marked != null) {
+            dirty.or(marked.get(shift, shift + days));
+        }
+        return dirty;
+    }
+}
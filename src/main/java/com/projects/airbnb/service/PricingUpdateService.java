@@ -1,96 +1,277 @@
 package com.projects.airbnb.service;
 
 import com.projects.airbnb.entity.Hotel;
-import com.projects.airbnb.entity.HotelMinPrice;
 import com.projects.airbnb.entity.Inventory;
-import com.projects.airbnb.repository.HotelMinPriceRepository;
+import com.projects.airbnb.event.InventoryChangedEvent;
 import com.projects.airbnb.repository.HotelRepository;
 import com.projects.airbnb.repository.InventoryRepository;
+import com.projects.airbnb.service.impl.InventoryStore;
+import com.projects.airbnb.strategy.PricingPipeline;
 import com.projects.airbnb.strategy.PricingService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.BitSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 
+/**
+ * Reprices the dirty days of every hotel. Hotels are handed out in chunks to a fixed pool of workers and
+ * each hotel is priced in its own short transaction, so one failing hotel neither rolls back nor blocks the
+ * others; it stays dirty and is retried by the next run, as is every hotel a stopped run did not reach.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-@Transactional
 public class PricingUpdateService {
 
     private final HotelRepository hotelRepository;
+    private final InventoryStore inventoryStore;
     private final InventoryRepository inventoryRepository;
-    private final HotelMinPriceRepository hotelMinPriceRepository;
     private final PricingService pricingService;
+    private final PriceDirtyTracker priceDirtyTracker;
+    private final InventoryHorizonService inventoryHorizonService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final EntityManager entityManager;
 
-    // Scheduler to update the inventory and hotelMinPrice tables every hour
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong lastRunMillis = new AtomicLong();
+    private final AtomicLong lastRunRows = new AtomicLong();
+    private final AtomicLong lastRunDirtyDays = new AtomicLong();
+    private final AtomicLong lastRunTotalDays = new AtomicLong();
+    private final AtomicLong lastRunFailedHotels = new AtomicLong();
+
+    @Value("${inventory.horizon.days:365}")
+    private int horizonDays;
+
+    @Value("${pricing.update.threads:4}")
+    private int threads;
+
+    @Value("${pricing.update.chunk-size:50}")
+    private int chunkSize;
+
+    @Value("${pricing.update.chunk-rows:1000}")
+    private int chunkRows;
+
+    // java: price rows in the application, database: one UPDATE per dirty range (row storage only)
+    @Value("${pricing.update.mode:java}")
+    private String mode;
+
+    @Value("${inventory.storage-mode:rows}")
+    private String storageMode;
+
+    private boolean inDatabase;
+    private ExecutorService executor;
+
+    @PostConstruct
+    void startExecutor() {
+        inDatabase = "database".equals(mode);
+        if (inDatabase && !"rows".equals(storageMode)) {
+            log.warn("Database-side pricing needs the rows inventory layout, pricing {} inventory in the application", storageMode);
+            inDatabase = false;
+        }
+        if (inDatabase && !pricingService.rules().equals(InventoryRepository.REPRICE_HOTEL_RULES)) {
+            throw new IllegalStateException("InventoryRepository.repriceHotel applies " + InventoryRepository.REPRICE_HOTEL_RULES
+                    + " but the pricing pipeline has " + pricingService.rules() + ", update the SQL before pricing in the database");
+        }
+        executor = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("price-update-", 0).factory());
+        registerMetrics();
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    private void registerMetrics() {
+        Gauge.builder("pricing.update.last.duration", lastRunMillis, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .description("Wall-clock time of the last price update run")
+                .register(meterRegistry);
+        Gauge.builder("pricing.update.last.rows", lastRunRows, AtomicLong::get)
+                .description("Inventory rows repriced by the last price update run")
+                .register(meterRegistry);
+        Gauge.builder("pricing.update.last.dirty.days", lastRunDirtyDays, AtomicLong::get)
+                .description("Hotel-days repriced by the last price update run")
+                .register(meterRegistry);
+        Gauge.builder("pricing.update.last.total.days", lastRunTotalDays, AtomicLong::get)
+                .description("Hotel-days in the pricing window of the last price update run")
+                .register(meterRegistry);
+        Gauge.builder("pricing.update.last.failed.hotels", lastRunFailedHotels, AtomicLong::get)
+                .description("Hotels the last price update run failed to reprice")
+                .register(meterRegistry);
+    }
+
+    // Scheduler to update the inventory prices every hour, only for the days that changed
 //    @Scheduled(cron = "*/5 * * * * *")
     @Scheduled(cron = "0 0 * * * *")
     public void updatePrices() {
-        int page = 0;
-        int batchSize = 100;
+        if (!running.compareAndSet(false, true)) {
+            log.info("Previous price update is still running, skipping this one");
+            return;
+        }
+        try {
+            runUpdate();
+        } finally {
+            running.set(false);
+        }
+    }
 
+    private void runUpdate() {
+        LocalDate startDate = LocalDate.now();
+        // days the horizon job has not appended yet have no rows, they must not count as priced
+        LocalDate horizonEnd = startDate.plusDays(horizonDays);
+        LocalDate extendedThrough = inventoryHorizonService.extendedThrough();
+        LocalDate endDate = extendedThrough.isBefore(horizonEnd) ? extendedThrough : horizonEnd;
+        long windowDays = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        // compiled once so every hotel of the run is priced against the same day
+        PricingPipeline pricingPipeline = pricingService.compile(startDate);
+        RunProgress progress = new RunProgress();
+
+        long start = System.nanoTime();
+        List<Future<?>> chunks = new ArrayList<>();
+        Long afterId = 0L;
         while (true) {
-            Page<Hotel> hotelPage = hotelRepository.findAll(PageRequest.of(page, batchSize));
-            if (hotelPage.isEmpty()) {
+            List<Long> hotelIds = hotelRepository.findHotelIdsAfter(afterId, PageRequest.of(0, chunkSize));
+            if (hotelIds.isEmpty()) {
                 break;
             }
-            hotelPage.getContent().forEach(this::updateHotelPrices);
-            page++;
+            chunks.add(executor.submit(() -> hotelIds.forEach(hotelId ->
+                    updateHotelPrices(hotelId, startDate, endDate, pricingPipeline, progress))));
+            afterId = hotelIds.getLast();
+        }
+
+        for (Future<?> chunk : chunks) {
+            try {
+                chunk.get();
+            } catch (ExecutionException e) {
+                log.error("Price update chunk failed", e.getCause());
+            } catch (InterruptedException e) {
+                // the hotels not reached yet stay dirty for the next run
+                Thread.currentThread().interrupt();
+                chunks.forEach(pending -> pending.cancel(true));
+                return;
+            }
+        }
+
+        long totalDays = progress.hotels.sum() * windowDays;
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        lastRunMillis.set(elapsedMillis);
+        lastRunRows.set(progress.rows.sum());
+        lastRunDirtyDays.set(progress.dirtyDays.sum());
+        lastRunTotalDays.set(totalDays);
+        lastRunFailedHotels.set(progress.failedHotels.sum());
+        log.info("Repriced {} of {} hotel-days ({} inventory rows) in {} ms, {} hotels failed",
+                progress.dirtyDays.sum(), totalDays, progress.rows.sum(), elapsedMillis, progress.failedHotels.sum());
+    }
+
+    private void updateHotelPrices(Long hotelId, LocalDate today, LocalDate endDate,
+                                   PricingPipeline pricingPipeline, RunProgress progress) {
+        progress.hotels.increment();
+        BitSet dirtyDays = priceDirtyTracker.drain(hotelId, today, endDate);
+        if (dirtyDays.isEmpty()) {
+            return;
+        }
+        try {
+            Long rows = transactionTemplate.execute(status ->
+                    hotelRepository.findById(hotelId)
+                            .map(hotel -> updateHotelPrices(hotel, dirtyDays, today, pricingPipeline))
+                            .orElse(0L));
+            progress.rows.add(rows == null ? 0 : rows);
+            progress.dirtyDays.add(dirtyDays.cardinality());
+        } catch (Exception e) {
+            priceDirtyTracker.markHotel(hotelId);
+            progress.failedHotels.increment();
+            log.error("Failed to update prices for hotel id {}, retrying in the next run", hotelId, e);
         }
     }
 
-    private void updateHotelPrices(Hotel hotel) {
-        log.info("Updating hotel prices for hotel id {}", hotel.getId());
-        LocalDate startDate = LocalDate.now();
-        LocalDate endDate = LocalDate.now().plusYears(1);
+    private long updateHotelPrices(Hotel hotel, BitSet dirtyDays, LocalDate today, PricingPipeline runPipeline) {
+        log.info("Updating hotel prices for hotel id {} on {} days", hotel.getId(), dirtyDays.cardinality());
+        PricingPipeline pricingPipeline = runPipeline.forRegion(hotel.getRegion());
+        long rows = 0;
 
-        List<Inventory> inventoryList = inventoryRepository.findByHotelAndDateBetween(hotel, startDate, endDate);
+        int from = dirtyDays.nextSetBit(0);
+        while (from >= 0) {
+            int to = dirtyDays.nextClearBit(from);
+            LocalDate startDate = today.plusDays(from);
+            LocalDate endDate = today.plusDays(to - 1);
 
-        updateInventoryPrices(inventoryList);
+            rows += inDatabase
+                    ? updateInventoryPricesInDatabase(hotel, startDate, endDate, today, pricingPipeline)
+                    : updateInventoryPrices(hotel, startDate, endDate, pricingPipeline);
 
-        updateHotelPriceMinPrice(hotel, inventoryList, startDate, endDate);
+            eventPublisher.publishEvent(new InventoryChangedEvent(hotel.getId(), startDate, endDate, true));
+            from = dirtyDays.nextSetBit(to);
+        }
+        return rows;
+    }
+
+    private long updateInventoryPricesInDatabase(Hotel hotel, LocalDate startDate, LocalDate endDate, LocalDate today,
+                                                 PricingPipeline pricingPipeline) {
+        return inventoryRepository.repriceHotel(hotel.getId(), startDate, endDate,
+                today, today.plusDays(PricingPipeline.URGENCY_DAYS),
+                pricingPipeline.holidaysBetween(startDate, endDate).toArray(LocalDate[]::new));
+    }
+
+    // Reads the range through a cursor and writes it back in chunks, clearing the session after each one
+    private long updateInventoryPrices(Hotel hotel, LocalDate startDate, LocalDate endDate, PricingPipeline pricingPipeline) {
+        long rows = 0;
+        List<Inventory> chunk = new ArrayList<>(chunkRows);
+
+        try (Stream<Inventory> inventoryStream = inventoryStore.streamByHotelAndDateBetween(hotel, startDate, endDate)) {
+            Iterator<Inventory> iterator = inventoryStream.iterator();
+            while (iterator.hasNext()) {
+                Inventory inventory = iterator.next();
+                inventory.setPrice(pricingPipeline.calculatePrice(inventory));
+                chunk.add(inventory);
+
+                if (chunk.size() == chunkRows) {
+                    rows += writeChunk(chunk);
+                }
+            }
+        }
+        return rows + writeChunk(chunk);
     }
 
-    private void updateHotelPriceMinPrice(Hotel hotel, List<Inventory> inventoryList, LocalDate startDate, LocalDate endDate) {
-        Map<LocalDate, BigDecimal> dailyMinPrice = inventoryList.stream()
-                .collect(Collectors.groupingBy(
-                        Inventory::getDate,
-                        Collectors.mapping(Inventory::getPrice, Collectors.minBy(Comparator.naturalOrder()))
-                ))
-                .entrySet().stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().orElse(BigDecimal.ZERO)));
-
-        // Prepare HotelPrice entities in bulk
-        List<HotelMinPrice> hotelPrices = new ArrayList<>();
-        dailyMinPrice.forEach((date, price) -> {
-            HotelMinPrice hotelMinPrice = hotelMinPriceRepository.findByHotelAndDate(hotel, date)
-                    .orElse(new HotelMinPrice(hotel, date));
-            hotelMinPrice.setPrice(price);
-            hotelPrices.add(hotelMinPrice);
-        });
-
-
-        // save all hotelPrices entities in bulk
-        hotelMinPriceRepository.saveAll(hotelPrices);
+    private int writeChunk(List<Inventory> chunk) {
+        int written = chunk.size();
+        inventoryStore.savePrices(chunk);
+        entityManager.flush();
+        entityManager.clear();
+        chunk.clear();
+        return written;
     }
 
-    private void updateInventoryPrices(List<Inventory> inventoryList) {
-        inventoryList.forEach(inventory -> {
-            BigDecimal dynamicPrice = pricingService.calculateDynamicPrice(inventory);
-            inventory.setPrice(dynamicPrice);
-        });
-        inventoryRepository.saveAll(inventoryList);
+    private static final class RunProgress {
+        private final LongAdder hotels = new LongAdder();
+        private final LongAdder dirtyDays = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder failedHotels = new LongAdder();
     }
 }
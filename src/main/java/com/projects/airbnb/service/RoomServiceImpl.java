@@ -4,6 +4,7 @@ import com.projects.airbnb.dto.RoomDto;
 import com.projects.airbnb.entity.Hotel;
 import com.projects.airbnb.entity.Room;
 import com.projects.airbnb.entity.User;
+import com.projects.airbnb.event.HotelChangedEvent;
 import com.projects.airbnb.exception.ResourceNotFoundException;
 import com.projects.airbnb.exception.UnAuthorizedException;
 import com.projects.airbnb.repository.HotelRepository;
@@ -15,6 +16,7 @@ import com.projects.airbnb.utility.HotelField;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -33,6 +35,7 @@ public class RoomServiceImpl implements RoomService {
     private final ModelMapper modelMapper;
     private final RoomRepository roomRepository;
     private final HotelRepository hotelRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     @Override
@@ -55,6 +58,7 @@ public class RoomServiceImpl implements RoomService {
         if (Boolean.TRUE.equals(existingHotel.getIsActive())) {
             inventoryService.initializeRoomForAYear(room);
         }
+        eventPublisher.publishEvent(new HotelChangedEvent(hotelId));
 
         return modelMapper.map(savedRoom, RoomDto.class);
     }
@@ -98,6 +102,7 @@ public class RoomServiceImpl implements RoomService {
 
         inventoryService.deleteAllInventories(existingRoom);
         roomRepository.deleteById(roomId);
+        eventPublisher.publishEvent(new HotelChangedEvent(existingRoom.getHotel().getId()));
     }
 
     @Transactional
@@ -118,6 +123,7 @@ public class RoomServiceImpl implements RoomService {
         room.setId(roomId);
 
         room = roomRepository.save(room);
+        eventPublisher.publishEvent(new HotelChangedEvent(hotelId));
 
         return modelMapper.map(room, RoomDto.class);
     }
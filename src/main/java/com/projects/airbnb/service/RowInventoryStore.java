@@ -0,0 +1,90 @@
+package com.projects.airbnb.service;
+
+import com.projects.airbnb.entity.Hotel;
+import com.projects.airbnb.entity.Inventory;
+import com.projects.airbnb.entity.Room;
+import com.projects.airbnb.repository.InventoryRepository;
+import com.projects.airbnb.service.impl.InventoryStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Default layout: one Inventory row per room per day
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "inventory.storage-mode", havingValue = "rows", matchIfMissing = true)
+public class RowInventoryStore implements InventoryStore {
+
+    private final InventoryRepository inventoryRepository;
+
+    @Override
+    public int initializeRooms(Collection<Long> roomIds, LocalDate startDate, LocalDate endDate) {
+        return inventoryRepository.bulkInitializeInventory(roomIds, startDate, endDate);
+    }
+
+    @Override
+    public int extendHorizon(Collection<Long> roomIds, LocalDate startDate, LocalDate endDate) {
+        return inventoryRepository.extendInventoryHorizon(roomIds, startDate, endDate);
+    }
+
+    @Override
+    public void deleteByRoom(Room room) {
+        inventoryRepository.deleteByRoom(room);
+    }
+
+    @Override
+    public List<Inventory> findByRoom(Room room) {
+        return inventoryRepository.findByRoomOrderByRoom(room);
+    }
+
+    @Override
+    public List<Inventory> findByHotelAndDateBetween(Hotel hotel, LocalDate startDate, LocalDate endDate) {
+        return inventoryRepository.findByHotelAndDateBetween(hotel, startDate, endDate);
+    }
+
+    @Override
+    public Stream<Inventory> streamByHotelAndDateBetween(Hotel hotel, LocalDate startDate, LocalDate endDate) {
+        return inventoryRepository.streamByHotelAndDateBetween(hotel, startDate, endDate);
+    }
+
+    @Override
+    public void savePrices(List<Inventory> inventoryList) {
+        inventoryRepository.saveAll(inventoryList);
+    }
+
+    @Override
+    public List<Inventory> findAndLockAvailableInventory(Long roomId, LocalDate startDate, LocalDate endDate, int roomsCount) {
+        return inventoryRepository.findAndLockAvailableInventory(roomId, startDate, endDate, roomsCount);
+    }
+
+    @Override
+    public void lockBeforeUpdate(Long roomId, LocalDate startDate, LocalDate endDate) {
+        inventoryRepository.getInventoryAndLockBeforeUpdate(roomId, startDate, endDate);
+    }
+
+    @Override
+    public void initBooking(Long roomId, LocalDate startDate, LocalDate endDate, int numberOfRooms) {
+        inventoryRepository.initBooking(roomId, startDate, endDate, numberOfRooms);
+    }
+
+    @Override
+    public void confirmBooking(Long roomId, LocalDate startDate, LocalDate endDate, int numberOfRooms) {
+        inventoryRepository.confirmBooking(roomId, startDate, endDate, numberOfRooms);
+    }
+
+    @Override
+    public void cancelBooking(Long roomId, LocalDate startDate, LocalDate endDate, int numberOfRooms) {
+        inventoryRepository.cancelBooking(roomId, startDate, endDate, numberOfRooms);
+    }
+
+    @Override
+    public void updateInventory(Long roomId, LocalDate startDate, LocalDate endDate, boolean closed, BigDecimal surgeFactor) {
+        inventoryRepository.updateInventory(roomId, startDate, endDate, closed, surgeFactor);
+    }
+}
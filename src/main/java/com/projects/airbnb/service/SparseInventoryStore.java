@@ -0,0 +1,210 @@
+package com.projects.airbnb.service;
+
+import com.projects.airbnb.entity.Hotel;
+import com.projects.airbnb.entity.Inventory;
+import com.projects.airbnb.entity.Room;
+import com.projects.airbnb.repository.InventoryRepository;
+import com.projects.airbnb.repository.RoomRepository;
+import com.projects.airbnb.service.impl.InventoryStore;
+import com.projects.airbnb.strategy.PricingPipeline;
+import com.projects.airbnb.strategy.PricingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Persists only the days that differ from the room defaults (nothing booked or reserved, surge 1, open).
+ * Every other day inside the horizon of an active hotel is synthesized on read and priced like a stored row.
+ * Locks take the room row as well as the stored rows, so virtual days are serialized without being written;
+ * only writes materialize the affected days for the regular UPDATE statements, and drop them again once
+ * they are back to the defaults.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "inventory.storage-mode", havingValue = "sparse")
+public class SparseInventoryStore implements InventoryStore {
+
+    private final InventoryRepository inventoryRepository;
+    private final RoomRepository roomRepository;
+    private final PricingService pricingService;
+
+    @Value("${inventory.horizon.days:365}")
+    private int horizonDays;
+
+    @Override
+    public int initializeRooms(Collection<Long> roomIds, LocalDate startDate, LocalDate endDate) {
+        // default days are virtual, there is nothing to seed
+        return 0;
+    }
+
+    @Override
+    public int extendHorizon(Collection<Long> roomIds, LocalDate startDate, LocalDate endDate) {
+        return 0;
+    }
+
+    @Override
+    public void deleteByRoom(Room room) {
+        inventoryRepository.deleteByRoom(room);
+    }
+
+    @Override
+    public List<Inventory> findByRoom(Room room) {
+        LocalDate today = LocalDate.now();
+        List<Inventory> persisted = inventoryRepository.findByRoomAndDateBetween(room, today, horizonEnd());
+        if (!Boolean.TRUE.equals(room.getHotel().getIsActive())) {
+            return persisted;
+        }
+        return withDefaultDays(List.of(room), persisted, today, horizonEnd());
+    }
+
+    @Override
+    public List<Inventory> findByHotelAndDateBetween(Hotel hotel, LocalDate startDate, LocalDate endDate) {
+        List<Inventory> persisted = inventoryRepository.findByHotelAndDateBetween(hotel, startDate, endDate);
+        if (!Boolean.TRUE.equals(hotel.getIsActive())) {
+            return persisted;
+        }
+        return withDefaultDays(roomRepository.findByHotelIdOrderByIdAsc(hotel.getId()), persisted, startDate, endDate);
+    }
+
+    @Override
+    public void savePrices(List<Inventory> inventoryList) {
+        // prices of virtual days are derived on every read, only persisted overrides are written back
+        inventoryRepository.saveAll(inventoryList.stream()
+                .filter(inventory -> inventory.getId() != null)
+                .toList());
+    }
+
+    @Override
+    public List<Inventory> findAndLockAvailableInventory(Long roomId, LocalDate startDate, LocalDate endDate, int roomsCount) {
+        Optional<Room> room = roomRepository.findAndLockById(roomId);
+        List<Inventory> available = inventoryRepository.findAndLockAvailableInventory(roomId, startDate, endDate, roomsCount);
+        if (room.isEmpty() || !Boolean.TRUE.equals(room.get().getHotel().getIsActive())
+                || room.get().getTotalCount() < roomsCount) {
+            return available;
+        }
+
+        // the days without a row are untouched defaults, free unless a stored row says otherwise
+        Set<LocalDate> persisted = inventoryRepository.findByRoomAndDateBetween(room.get(), startDate, endDate).stream()
+                .map(Inventory::getDate)
+                .collect(Collectors.toSet());
+        List<Inventory> inventoryList = new ArrayList<>(available);
+        PricingPipeline pricingPipeline = pricingPipeline(room.get().getHotel());
+        forEachDayInHorizon(startDate, endDate, date -> {
+            if (!persisted.contains(date)) {
+                inventoryList.add(defaultDay(room.get(), date, pricingPipeline));
+            }
+        });
+        inventoryList.sort(Comparator.comparing(Inventory::getDate));
+        return inventoryList;
+    }
+
+    @Override
+    public void lockBeforeUpdate(Long roomId, LocalDate startDate, LocalDate endDate) {
+        roomRepository.findAndLockById(roomId);
+        inventoryRepository.getInventoryAndLockBeforeUpdate(roomId, startDate, endDate);
+    }
+
+    @Override
+    public void initBooking(Long roomId, LocalDate startDate, LocalDate endDate, int numberOfRooms) {
+        materialize(roomId, startDate, endDate);
+        inventoryRepository.initBooking(roomId, startDate, endDate, numberOfRooms);
+    }
+
+    @Override
+    public void confirmBooking(Long roomId, LocalDate startDate, LocalDate endDate, int numberOfRooms) {
+        materialize(roomId, startDate, endDate);
+        inventoryRepository.confirmBooking(roomId, startDate, endDate, numberOfRooms);
+    }
+
+    @Override
+    public void cancelBooking(Long roomId, LocalDate startDate, LocalDate endDate, int numberOfRooms) {
+        materialize(roomId, startDate, endDate);
+        inventoryRepository.cancelBooking(roomId, startDate, endDate, numberOfRooms);
+        inventoryRepository.deleteDefaultInventory(roomId, startDate, endDate);
+    }
+
+    @Override
+    public void updateInventory(Long roomId, LocalDate startDate, LocalDate endDate, boolean closed, BigDecimal surgeFactor) {
+        materialize(roomId, startDate, endDate);
+        inventoryRepository.updateInventory(roomId, startDate, endDate, closed, surgeFactor);
+        inventoryRepository.deleteDefaultInventory(roomId, startDate, endDate);
+    }
+
+    // Inserts the default rows for the days of the range that lie inside the horizon of an active hotel,
+    // holding the room lock the lock methods take
+    private void materialize(Long roomId, LocalDate startDate, LocalDate endDate) {
+        LocalDate from = startDate.isBefore(LocalDate.now()) ? LocalDate.now() : startDate;
+        LocalDate to = endDate.isAfter(horizonEnd()) ? horizonEnd() : endDate;
+        if (from.isAfter(to)) {
+            return;
+        }
+
+        boolean active = roomRepository.findAndLockById(roomId)
+                .map(room -> Boolean.TRUE.equals(room.getHotel().getIsActive()))
+                .orElse(false);
+        if (active) {
+            inventoryRepository.bulkInitializeInventory(List.of(roomId), from, to);
+        }
+    }
+
+    private List<Inventory> withDefaultDays(List<Room> rooms, List<Inventory> persisted,
+                                            LocalDate startDate, LocalDate endDate) {
+        Map<Long, Map<LocalDate, Inventory>> persistedByRoom = persisted.stream()
+                .collect(Collectors.groupingBy(inventory -> inventory.getRoom().getId(),
+                        Collectors.toMap(Inventory::getDate, inventory -> inventory)));
+
+        List<Inventory> inventoryList = new ArrayList<>(persisted);
+        for (Room room : rooms) {
+            Map<LocalDate, Inventory> overrides = persistedByRoom.getOrDefault(room.getId(), Map.of());
+            PricingPipeline pricingPipeline = pricingPipeline(room.getHotel());
+            forEachDayInHorizon(startDate, endDate, date -> {
+                if (!overrides.containsKey(date)) {
+                    inventoryList.add(defaultDay(room, date, pricingPipeline));
+                }
+            });
+        }
+        inventoryList.sort(Comparator.comparing(Inventory::getDate));
+        return inventoryList;
+    }
+
+    private void forEachDayInHorizon(LocalDate startDate, LocalDate endDate, Consumer<LocalDate> action) {
+        LocalDate from = startDate.isBefore(LocalDate.now()) ? LocalDate.now() : startDate;
+        LocalDate to = endDate.isAfter(horizonEnd()) ? horizonEnd() : endDate;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            action.accept(date);
+        }
+    }
+
+    private PricingPipeline pricingPipeline(Hotel hotel) {
+        return pricingService.compile(LocalDate.now()).forRegion(hotel.getRegion());
+    }
+
+    // A day at the room defaults, priced by the same rules the price job stores for persisted rows
+    private Inventory defaultDay(Room room, LocalDate date, PricingPipeline pricingPipeline) {
+        Inventory inventory = Inventory.builder()
+                .hotel(room.getHotel())
+                .room(room)
+                .date(date)
+                .bookedCount(0)
+                .reservedCount(0)
+                .totalCount(room.getTotalCount())
+                .surgeFactor(BigDecimal.ONE)
+                .price(room.getBasePrice())
+                .city(room.getHotel().getCity())
+                .closed(false)
+                .build();
+        inventory.setPrice(pricingPipeline.calculatePrice(inventory));
+        return inventory;
+    }
+
+    private LocalDate horizonEnd() {
+        return LocalDate.now().plusDays(horizonDays);
+    }
+}
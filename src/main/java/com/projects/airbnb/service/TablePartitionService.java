@@ -0,0 +1,263 @@
+package com.projects.airbnb.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the inventory table range-partitioned by month on its {@code date} column.
+ * A table still in its plain Hibernate-generated form is only converted when the migration is requested with
+ * {@code inventory.partitioning.migrate}, one month per transaction so an interrupted run resumes where it
+ * stopped. The scheduled run creates the partitions ahead of the horizon and detaches or drops the expired
+ * ones; rows outside every month partition land in a DEFAULT partition instead of failing the insert.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "inventory.partitioning.enabled", havingValue = "true")
+public class TablePartitionService {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern MONTH_PARTITION = Pattern.compile(".*_p(\\d{6})");
+    private static final Pattern SUBPLANS_REMOVED = Pattern.compile("Subplans Removed: (\\d+)");
+
+    private static final List<PartitionedTable> TABLES = List.of(
+            new PartitionedTable("inventory",
+                    List.of("CONSTRAINT unique_hotel_room_date UNIQUE (hotel_id, room_id, date)",
+                            "CONSTRAINT fk_inventory_hotel FOREIGN KEY (hotel_id) REFERENCES hotel (id)",
+                            "CONSTRAINT fk_inventory_room FOREIGN KEY (room_id) REFERENCES room (id)"))
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${inventory.partitioning.months-ahead:14}")
+    private int monthsAhead;
+
+    @Value("${inventory.partitioning.retention-months:1}")
+    private int retentionMonths;
+
+    @Value("${inventory.partitioning.drop-expired:false}")
+    private boolean dropExpired;
+
+    // Converts plain tables on startup; meant for a one-off run while nothing else writes to them
+    @Value("${inventory.partitioning.migrate:false}")
+    private boolean migrate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializePartitions() {
+        for (PartitionedTable table : TABLES) {
+            boolean interrupted = tableExists(table.name() + "_unpartitioned");
+            if (!isPartitioned(table.name()) || interrupted) {
+                if (migrate) {
+                    convertToPartitioned(table);
+                } else {
+                    log.warn("Table {} is not {}partitioned, run the migration once with inventory.partitioning.migrate=true",
+                            table.name(), interrupted ? "fully " : "");
+                }
+            }
+        }
+        maintainPartitions();
+        TABLES.stream()
+                .filter(table -> isPartitioned(table.name()))
+                .forEach(table -> verifyPruning(table.name()));
+    }
+
+    @Scheduled(cron = "${inventory.partitioning.cron:0 15 3 * * *}")
+    public void maintainPartitions() {
+        YearMonth current = YearMonth.now();
+        YearMonth oldestKept = current.minusMonths(retentionMonths);
+
+        for (PartitionedTable table : TABLES) {
+            if (!isPartitioned(table.name())) {
+                continue;
+            }
+            createDefaultPartition(table.name());
+            for (YearMonth month = current; !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+                createPartition(table.name(), month);
+            }
+
+            for (String partition : findPartitions(table.name())) {
+                Matcher suffix = MONTH_PARTITION.matcher(partition);
+                if (!suffix.matches()) {
+                    continue;
+                }
+                YearMonth month = YearMonth.parse(suffix.group(1), SUFFIX);
+                if (month.isBefore(oldestKept)) {
+                    jdbcTemplate.execute("ALTER TABLE " + table.name() + " DETACH PARTITION " + partition);
+                    if (dropExpired) {
+                        jdbcTemplate.execute("DROP TABLE " + partition);
+                    }
+                    log.info("Expired partition {} of {} {}", partition, table.name(), dropExpired ? "dropped" : "detached");
+                }
+            }
+        }
+    }
+
+    private void convertToPartitioned(PartitionedTable table) {
+        String name = table.name();
+        String legacy = name + "_unpartitioned";
+        log.info("Converting table {} to monthly range partitions", name);
+
+        if (!tableExists(legacy)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("ALTER TABLE " + name + " RENAME TO " + legacy);
+                jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE " + legacy + " INCLUDING DEFAULTS INCLUDING IDENTITY)"
+                        + " PARTITION BY RANGE (date)");
+                createDefaultPartition(name);
+            });
+        }
+
+        // every month that holds rows gets its partition and its rows in a transaction of its own; a month is
+        // cleared before it is copied, so a run that stopped half way can simply be started again
+        LocalDate oldest = jdbcTemplate.queryForObject("SELECT MIN(date) FROM " + legacy, LocalDate.class);
+        LocalDate newest = jdbcTemplate.queryForObject("SELECT MAX(date) FROM " + legacy, LocalDate.class);
+        if (oldest != null) {
+            for (YearMonth month = YearMonth.from(oldest); !month.isAfter(YearMonth.from(newest)); month = month.plusMonths(1)) {
+                YearMonth copied = month;
+                transactionTemplate.executeWithoutResult(status -> {
+                    createPartition(name, copied);
+                    jdbcTemplate.update("DELETE FROM " + name + " WHERE date >= ? AND date < ?",
+                            copied.atDay(1), copied.plusMonths(1).atDay(1));
+                    int rows = jdbcTemplate.update("INSERT INTO " + name + " SELECT * FROM " + legacy
+                            + " WHERE date >= ? AND date < ?", copied.atDay(1), copied.plusMonths(1).atDay(1));
+                    log.info("Copied {} rows of {} into {}_p{}", rows, name, name, copied.format(SUFFIX));
+                });
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SELECT setval(pg_get_serial_sequence('" + name + "', 'id'),"
+                    + " COALESCE((SELECT MAX(id) FROM " + name + "), 0) + 1, false)");
+            jdbcTemplate.execute("DROP TABLE " + legacy);
+
+            // unique keys on a partitioned table have to include the partition key
+            jdbcTemplate.execute("ALTER TABLE " + name + " ADD CONSTRAINT " + name + "_pkey PRIMARY KEY (id, date)");
+            for (String constraint : table.constraints()) {
+                jdbcTemplate.execute("ALTER TABLE " + name + " ADD " + constraint);
+            }
+        });
+        log.info("Converted table {} to monthly range partitions", name);
+    }
+
+    private void createDefaultPartition(String table) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + "_pdefault PARTITION OF " + table + " DEFAULT");
+    }
+
+    private void createPartition(String table, YearMonth month) {
+        String partition = table + "_p" + month.format(SUFFIX);
+        if (tableExists(partition)) {
+            return;
+        }
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        String bounds = " FOR VALUES FROM ('" + from + "') TO ('" + to + "')";
+
+        transactionTemplate.executeWithoutResult(status -> {
+            String fallback = table + "_pdefault";
+            boolean strayRows = tableExists(fallback) && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM " + fallback + " WHERE date >= ? AND date < ?)", Boolean.class, from, to));
+            if (!strayRows) {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + table + bounds);
+                return;
+            }
+            // the default partition may not keep rows of a month that gets its own partition, so they move over
+            jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + fallback);
+            jdbcTemplate.execute("CREATE TABLE " + partition + " PARTITION OF " + table + bounds);
+            int moved = jdbcTemplate.update("INSERT INTO " + table + " SELECT * FROM " + fallback
+                    + " WHERE date >= ? AND date < ?", from, to);
+            jdbcTemplate.update("DELETE FROM " + fallback + " WHERE date >= ? AND date < ?", from, to);
+            jdbcTemplate.execute("ALTER TABLE " + table + " ATTACH PARTITION " + fallback + " DEFAULT");
+            log.info("Moved {} rows of {} from the default partition into {}", moved, table, partition);
+        });
+    }
+
+    private boolean tableExists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, table));
+    }
+
+    private boolean isPartitioned(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("""
+                SELECT EXISTS (SELECT 1
+                               FROM pg_partitioned_table pt
+                                   JOIN pg_class c ON c.oid = pt.partrelid
+                               WHERE c.relname = ?)
+                """, Boolean.class, table));
+    }
+
+    private List<String> findPartitions(String table) {
+        return jdbcTemplate.queryForList("""
+                SELECT child.relname
+                FROM pg_inherits i
+                    JOIN pg_class parent ON parent.oid = i.inhparent
+                    JOIN pg_class child ON child.oid = i.inhrelid
+                WHERE parent.relname = ?
+                ORDER BY child.relname
+                """, String.class, table);
+    }
+
+    /**
+     * Executes the hotel and date-range shape of the repository queries as a prepared statement with a generic
+     * plan, which is how the bind parameters of JPA queries reach PostgreSQL once a statement is cached. Such a
+     * plan cannot prune while planning, so the partitions it skips show up as "Subplans Removed" at run time.
+     */
+    private void verifyPruning(String table) {
+        LocalDate today = LocalDate.now();
+        List<String> plan = jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+            List<String> lines = new ArrayList<>();
+            // the pooled connection goes back clean: only this statement is deallocated, the driver keeps its own
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET plan_cache_mode = force_generic_plan");
+                statement.execute("PREPARE verify_pruning(BIGINT, DATE, DATE) AS SELECT * FROM " + table
+                        + " WHERE hotel_id = $1 AND date BETWEEN $2 AND $3");
+                try (ResultSet resultSet = statement.executeQuery("EXPLAIN (ANALYZE, COSTS OFF, TIMING OFF, SUMMARY OFF)"
+                        + " EXECUTE verify_pruning(-1, '" + today + "', '" + today.plusDays(7) + "')")) {
+                    while (resultSet.next()) {
+                        lines.add(resultSet.getString(1));
+                    }
+                }
+                statement.execute("DEALLOCATE verify_pruning");
+            } finally {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("RESET plan_cache_mode");
+                }
+            }
+            return lines;
+        });
+
+        int total = findPartitions(table).size();
+        int removed = plan.stream()
+                .map(SUBPLANS_REMOVED::matcher)
+                .filter(Matcher::find)
+                .mapToInt(matcher -> Integer.parseInt(matcher.group(1)))
+                .sum();
+
+        if (total > 1 && removed == 0) {
+            log.warn("Prepared date-range query on {} scans all {} partitions, pruning is not effective", table, total);
+        } else {
+            log.info("Prepared date-range query on {} scans {} of {} partitions", table, total - removed, total);
+        }
+    }
+
+    private record PartitionedTable(String name, List<String> constraints) {
+    }
+}
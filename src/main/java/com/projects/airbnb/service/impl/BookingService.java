@@ -2,9 +2,12 @@ package com.projects.airbnb.service.impl;
 
 import com.projects.airbnb.dto.BookingDto;
 import com.projects.airbnb.dto.BookingRequest;
+import com.projects.airbnb.dto.CursorPage;
 import com.projects.airbnb.dto.GuestDto;
 import com.projects.airbnb.dto.HotelReportDto;
 import com.stripe.model.Event;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -25,7 +28,15 @@ public interface BookingService {
 
     List<BookingDto> getAllBookingByHotelId(Long hotelId);
 
+    CursorPage<BookingDto> getAllBookingByHotelId(Long hotelId, String cursor, int size);
+
+    Page<BookingDto> getAllBookingByHotelId(Long hotelId, Pageable pageable);
+
     HotelReportDto getHotelReport(Long hotelId, LocalDate startDate, LocalDate endDate);
 
     List<BookingDto> getMyBookings();
+
+    CursorPage<BookingDto> getMyBookings(String cursor, int size);
+
+    Page<BookingDto> getMyBookings(Pageable pageable);
 }
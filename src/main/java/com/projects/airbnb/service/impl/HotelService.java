@@ -1,5 +1,6 @@
 package com.projects.airbnb.service.impl;
 
+import com.projects.airbnb.dto.HotelActivationStatusDto;
 import com.projects.airbnb.dto.HotelDto;
 import com.projects.airbnb.dto.HotelInfoDto;
 
@@ -15,7 +16,9 @@ public interface HotelService {
 
     void deleteHotelById(Long hotelId);
 
-    void activateHotel(Long hotelId);
+    HotelActivationStatusDto activateHotel(Long hotelId);
+
+    HotelActivationStatusDto getActivationStatus(Long hotelId);
 
     HotelInfoDto getHotelInfoById(Long hotelId);
 
@@ -1,8 +1,13 @@
 package com.projects.airbnb.service.impl;
 
+import com.projects.airbnb.dto.CursorPage;
+import com.projects.airbnb.dto.FlexibleHotelDto;
+import com.projects.airbnb.dto.FlexibleSearchRequest;
 import com.projects.airbnb.dto.HotelPriceDto;
 import com.projects.airbnb.dto.HotelSearchRequest;
 import com.projects.airbnb.dto.InventoryDto;
+import com.projects.airbnb.dto.NearbyHotelDto;
+import com.projects.airbnb.dto.NearbySearchRequest;
 import com.projects.airbnb.dto.UpdateInventoryRequestDto;
 import com.projects.airbnb.entity.Room;
 import org.springframework.data.domain.Page;
@@ -13,10 +18,18 @@ public interface InventoryService {
 
     void initializeRoomForAYear(Room room);
 
+    int initializeRoomsForAYear(List<Room> rooms);
+
     void deleteAllInventories(Room room);
 
     Page<HotelPriceDto> searchHotels(HotelSearchRequest hotelSearchRequest);
 
+    CursorPage<HotelPriceDto> searchHotelsByCursor(HotelSearchRequest hotelSearchRequest);
+
+    List<NearbyHotelDto> searchNearbyHotels(NearbySearchRequest nearbySearchRequest);
+
+    List<FlexibleHotelDto> searchFlexibleHotels(FlexibleSearchRequest flexibleSearchRequest);
+
     List<InventoryDto> getAllInventoryByRoom(Long roomId);
 
     void updateInventory(Long roomId, UpdateInventoryRequestDto updateInventoryRequestDto);
@@ -0,0 +1,62 @@
+package com.projects.airbnb.service.impl;
+
+import com.projects.airbnb.entity.Hotel;
+import com.projects.airbnb.entity.Inventory;
+import com.projects.airbnb.entity.Room;
+import org.hibernate.Hibernate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Physical storage of room availability. Reads hand out {@link Inventory} objects whatever the layout,
+ * so pricing and booking code stays the same; writes must run inside the caller's transaction.
+ * The layout is picked with {@code inventory.storage-mode}.
+ */
+public interface InventoryStore {
+
+    int initializeRooms(Collection<Long> roomIds, LocalDate startDate, LocalDate endDate);
+
+    int extendHorizon(Collection<Long> roomIds, LocalDate startDate, LocalDate endDate);
+
+    void deleteByRoom(Room room);
+
+    List<Inventory> findByRoom(Room room);
+
+    List<Inventory> findByHotelAndDateBetween(Hotel hotel, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * The rows of {@link #findByHotelAndDateBetween} ordered by date and room, read as they are consumed with
+     * their rooms initialized, so the caller may clear the persistence context between chunks. Must be closed.
+     * Layouts without a cursor read one month at a time.
+     */
+    default Stream<Inventory> streamByHotelAndDateBetween(Hotel hotel, LocalDate startDate, LocalDate endDate) {
+        return Stream.iterate(startDate, month -> !month.isAfter(endDate), month -> month.plusMonths(1).withDayOfMonth(1))
+                .flatMap(month -> {
+                    LocalDate monthEnd = month.with(TemporalAdjusters.lastDayOfMonth());
+                    List<Inventory> days = findByHotelAndDateBetween(hotel, month, monthEnd.isAfter(endDate) ? endDate : monthEnd);
+                    days.forEach(inventory -> Hibernate.initialize(inventory.getRoom()));
+                    return days.stream()
+                            .sorted(Comparator.comparing(Inventory::getDate).thenComparing(inventory -> inventory.getRoom().getId()));
+                });
+    }
+
+    void savePrices(List<Inventory> inventoryList);
+
+    List<Inventory> findAndLockAvailableInventory(Long roomId, LocalDate startDate, LocalDate endDate, int roomsCount);
+
+    void lockBeforeUpdate(Long roomId, LocalDate startDate, LocalDate endDate);
+
+    void initBooking(Long roomId, LocalDate startDate, LocalDate endDate, int numberOfRooms);
+
+    void confirmBooking(Long roomId, LocalDate startDate, LocalDate endDate, int numberOfRooms);
+
+    void cancelBooking(Long roomId, LocalDate startDate, LocalDate endDate, int numberOfRooms);
+
+    void updateInventory(Long roomId, LocalDate startDate, LocalDate endDate, boolean closed, BigDecimal surgeFactor);
+}
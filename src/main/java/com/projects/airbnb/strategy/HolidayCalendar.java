@@ -0,0 +1,185 @@
+package com.projects.airbnb.strategy;
+
+import com.projects.airbnb.entity.Holiday;
+import com.projects.airbnb.event.HolidayCalendarChangedEvent;
+import com.projects.airbnb.repository.HolidayRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Public holidays per region, read from the {@code holiday} table and from CSV files named {@code <region>.csv}
+ * with one {@code yyyy-MM-dd[,name]} per line, into one bit set per region and year. A region such as
+ * {@code IN-MH} includes the holidays of its country {@code IN}, and a region without a calendar of its own
+ * falls back to its country's. Reloaded periodically; a changed set of calendars is swapped in at once and
+ * announced with {@link HolidayCalendarChangedEvent} so prices get recomputed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HolidayCalendar {
+
+    private final HolidayRepository holidayRepository;
+    private final ResourceLoader resourceLoader;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile Map<String, Holidays> calendars = Map.of();
+
+    @Value("${pricing.holidays.files:}")
+    private String files;
+
+    // used for hotels without a region
+    @Value("${pricing.holidays.default-region:}")
+    private String defaultRegion;
+
+    /**
+     * The holidays of one region, a bit per day of year for every year that has any. The same bits are also
+     * laid out by epoch day from the first of those years, so pricing can look a day up without a LocalDate.
+     */
+    public record Holidays(Map<Integer, BitSet> years, long firstEpochDay, BitSet epochDays) {
+
+        private static final Holidays NONE = of(Map.of());
+
+        static Holidays of(Map<Integer, BitSet> years) {
+            if (years.isEmpty()) {
+                return new Holidays(Map.of(), 0, new BitSet());
+            }
+            long firstEpochDay = LocalDate.of(Collections.min(years.keySet()), 1, 1).toEpochDay();
+            BitSet epochDays = new BitSet();
+            years.forEach((year, days) -> {
+                int offset = (int) (LocalDate.of(year, 1, 1).toEpochDay() - firstEpochDay);
+                for (int day = days.nextSetBit(0); day >= 0; day = days.nextSetBit(day + 1)) {
+                    epochDays.set(offset + day);
+                }
+            });
+            return new Holidays(Map.copyOf(years), firstEpochDay, epochDays);
+        }
+
+        public boolean isHoliday(LocalDate date) {
+            return isHoliday(date.toEpochDay());
+        }
+
+        public boolean isHoliday(long epochDay) {
+            long offset = epochDay - firstEpochDay;
+            return offset >= 0 && offset < epochDays.length() && epochDays.get((int) offset);
+        }
+
+        public List<LocalDate> between(LocalDate startDate, LocalDate endDate) {
+            List<LocalDate> holidays = new ArrayList<>();
+            for (int year = startDate.getYear(); year <= endDate.getYear(); year++) {
+                BitSet days = years.get(year);
+                if (days == null) continue;
+                for (int day = days.nextSetBit(0); day >= 0; day = days.nextSetBit(day + 1)) {
+                    LocalDate date = LocalDate.ofYearDay(year, day + 1);
+                    if (!date.isBefore(startDate) && !date.isAfter(endDate)) holidays.add(date);
+                }
+            }
+            return holidays;
+        }
+    }
+
+    public boolean isHoliday(LocalDate date, String region) {
+        return forRegion(region).isHoliday(date);
+    }
+
+    public Holidays forRegion(String region) {
+        String key = normalize(region == null || region.isBlank() ? defaultRegion : region);
+        Map<String, Holidays> current = calendars;
+        Holidays holidays = current.get(key);
+        if (holidays == null && key.indexOf('-') > 0) {
+            holidays = current.get(key.substring(0, key.indexOf('-')));
+        }
+        return holidays == null ? Holidays.NONE : holidays;
+    }
+
+    // loaded before the context finishes starting, so no price run sees an empty calendar
+    @PostConstruct
+    void loadOnStartup() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${pricing.holidays.reload-delay-ms:60000}",
+            initialDelayString = "${pricing.holidays.reload-delay-ms:60000}")
+    public synchronized void reload() {
+        try {
+            Map<String, Map<Integer, BitSet>> loaded = new HashMap<>();
+            for (Holiday holiday : holidayRepository.findAll()) {
+                add(loaded, holiday.getRegion(), holiday.getDate());
+            }
+            int fileCount = loadFiles(loaded);
+
+            // subdivisions inherit the holidays of their country
+            loaded.forEach((region, years) -> {
+                int dash = region.indexOf('-');
+                Map<Integer, BitSet> country = dash > 0 ? loaded.get(region.substring(0, dash)) : null;
+                if (country != null) {
+                    country.forEach((year, days) -> years.computeIfAbsent(year, y -> new BitSet(366)).or(days));
+                }
+            });
+
+            Map<String, Holidays> built = new HashMap<>();
+            loaded.forEach((region, years) -> built.put(region, Holidays.of(years)));
+            if (built.equals(calendars)) {
+                return;
+            }
+            calendars = Map.copyOf(built);
+            log.info("Loaded holiday calendars for {} regions from the database and {} files", built.size(), fileCount);
+            eventPublisher.publishEvent(new HolidayCalendarChangedEvent());
+        } catch (Exception e) {
+            log.error("Failed to reload the holiday calendars, keeping the previous ones", e);
+        }
+    }
+
+    private int loadFiles(Map<String, Map<Integer, BitSet>> loaded) throws IOException {
+        if (files == null || files.isBlank()) {
+            return 0;
+        }
+        Resource[] resources = ResourcePatternUtils.getResourcePatternResolver(resourceLoader).getResources(files);
+        for (Resource resource : resources) {
+            String filename = resource.getFilename();
+            if (filename == null || !filename.endsWith(".csv")) continue;
+            String region = filename.substring(0, filename.length() - ".csv".length());
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.strip();
+                    if (line.isEmpty() || line.startsWith("#")) continue;
+                    int comma = line.indexOf(',');
+                    String date = comma < 0 ? line : line.substring(0, comma).strip();
+                    try {
+                        add(loaded, region, LocalDate.parse(date));
+                    } catch (DateTimeParseException e) {
+                        log.warn("Skipping invalid holiday date '{}' in {}", date, filename);
+                    }
+                }
+            }
+        }
+        return resources.length;
+    }
+
+    private static void add(Map<String, Map<Integer, BitSet>> loaded, String region, LocalDate date) {
+        loaded.computeIfAbsent(normalize(region), key -> new HashMap<>())
+                .computeIfAbsent(date.getYear(), year -> new BitSet(366))
+                .set(date.getDayOfYear() - 1);
+    }
+
+    private static String normalize(String region) {
+        return region == null ? "" : region.strip().toUpperCase(Locale.ROOT);
+    }
+}
@@ -9,12 +9,12 @@ import java.math.BigDecimal;
 public class HolidayPricingStrategy implements PricingStrategy {
 
     private final PricingStrategy wrapped;
+    private final HolidayCalendar holidayCalendar;
 
     @Override
     public BigDecimal calculatePrice(Inventory inventory) {
         BigDecimal price = wrapped.calculatePrice(inventory);
-        boolean isTodayHoliday = true;// call an API or check with local data
-        if (isTodayHoliday) {
+        if (holidayCalendar.isHoliday(inventory.getDate(), inventory.getHotel().getRegion())) {
             price = price.multiply(BigDecimal.valueOf(1.25));
         }
         return price;
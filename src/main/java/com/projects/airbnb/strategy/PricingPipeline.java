@@ -0,0 +1,103 @@
+package com.projects.airbnb.strategy;
+
+import com.projects.airbnb.entity.Inventory;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The decorator chain of {@link PricingService#calculateDynamicPrice} compiled into a flat list of rules over
+ * prices in cents. Every factor of the chain is an exact decimal, so the whole product is one fraction; it is
+ * rounded half-up to cents once at the end, which is what storing the chain's unrounded BigDecimal in a
+ * scale-2 column does. The date rules are evaluated against the day the pipeline was compiled for, holidays
+ * against the calendar of one region as it was when the pipeline was bound to it. Instances are immutable and
+ * can be shared across threads.
+ */
+public final class PricingPipeline {
+
+    public static final int URGENCY_DAYS = 7;
+
+    private final PricingRule[] rules;
+    private final long denominator;
+    private final long today;
+    private final HolidayCalendar holidayCalendar;
+    private final HolidayCalendar.Holidays holidays;
+
+    PricingPipeline(List<PricingRule> rules, LocalDate today, HolidayCalendar holidayCalendar) {
+        this.rules = rules.toArray(PricingRule[]::new);
+        long product = 1;
+        for (PricingRule rule : this.rules) {
+            product = Math.multiplyExact(product, rule.denominator);
+        }
+        this.denominator = product;
+        this.today = today.toEpochDay();
+        this.holidayCalendar = holidayCalendar;
+        this.holidays = holidayCalendar.forRegion(null);
+    }
+
+    private PricingPipeline(PricingPipeline pipeline, HolidayCalendar.Holidays holidays) {
+        this.rules = pipeline.rules;
+        this.denominator = pipeline.denominator;
+        this.today = pipeline.today;
+        this.holidayCalendar = pipeline.holidayCalendar;
+        this.holidays = holidays;
+    }
+
+    // The same pipeline with the holidays of a hotel's region
+    public PricingPipeline forRegion(String region) {
+        return new PricingPipeline(this, holidayCalendar.forRegion(region));
+    }
+
+    public List<LocalDate> holidaysBetween(LocalDate startDate, LocalDate endDate) {
+        return holidays.between(startDate, endDate);
+    }
+
+    public BigDecimal calculatePrice(Inventory inventory) {
+        long cents = priceCents(
+                inventory.getRoom().getBasePrice().movePointRight(2).longValueExact(),
+                inventory.getSurgeFactor().movePointRight(2).longValueExact(),
+                inventory.getBookedCount(),
+                inventory.getTotalCount(),
+                inventory.getDate().toEpochDay());
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Dynamic price in cents of a room-day, from the base price in cents and the surge factor in hundredths.
+     */
+    public long priceCents(long baseCents, long surgeHundredths, int bookedCount, int totalCount, long epochDay) {
+        long numerator = 1;
+        for (PricingRule rule : rules) {
+            long factor = switch (rule) {
+                case SURGE -> surgeHundredths;
+                // same outcome as (double) booked / total > 0.8, including a total of zero
+                case OCCUPANCY -> 5L * bookedCount > 4L * totalCount ? rule.numerator : rule.denominator;
+                case URGENCY -> epochDay >= today && epochDay < today + URGENCY_DAYS ? rule.numerator : rule.denominator;
+                case HOLIDAY -> isHoliday(epochDay) ? rule.numerator : rule.denominator;
+            };
+            numerator = Math.multiplyExact(numerator, factor);
+        }
+
+        long high = Math.multiplyHigh(baseCents, numerator);
+        long product = baseCents * numerator;
+        if (high != 0 || product < 0) {
+            // beyond 64 bits only for prices no room realistically has, stay exact anyway
+            return BigInteger.valueOf(baseCents).multiply(BigInteger.valueOf(numerator))
+                    .add(BigInteger.valueOf(denominator / 2))
+                    .divide(BigInteger.valueOf(denominator))
+                    .longValueExact();
+        }
+        return roundHalfUp(product, denominator);
+    }
+
+    private static long roundHalfUp(long value, long divisor) {
+        long quotient = value / divisor;
+        return value % divisor * 2 >= divisor ? quotient + 1 : quotient;
+    }
+
+    private boolean isHoliday(long epochDay) {
+        return holidays.isHoliday(epochDay);
+    }
+}
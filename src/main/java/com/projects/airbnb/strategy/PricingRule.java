@@ -0,0 +1,20 @@
+package com.projects.airbnb.strategy;
+
+/**
+ * The adjustments of the {@link PricingStrategy} decorators as exact fractions, numerator over denominator,
+ * so a {@link PricingPipeline} can apply them in integer arithmetic. The surge numerator is per row.
+ */
+public enum PricingRule {
+    SURGE(0, 100),          // SurgePricingStrategy, surge factor in hundredths
+    OCCUPANCY(12, 10),      // OccupancyPriceStrategy, x1.2 above 80% booked
+    URGENCY(115, 100),      // UrgencyPricingStrategy, x1.15 within the next 7 days
+    HOLIDAY(125, 100);      // HolidayPricingStrategy, x1.25 on holidays
+
+    final long numerator;
+    final long denominator;
+
+    PricingRule(long numerator, long denominator) {
+        this.numerator = numerator;
+        this.denominator = denominator;
+    }
+}
@@ -1,14 +1,23 @@
 package com.projects.airbnb.strategy;
 
 import com.projects.airbnb.entity.Inventory;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 @Service
+@RequiredArgsConstructor
 public class PricingService {
 
+    // the rules of the decorator chain below, in the same order
+    private static final List<PricingRule> RULES =
+            List.of(PricingRule.SURGE, PricingRule.OCCUPANCY, PricingRule.URGENCY, PricingRule.HOLIDAY);
+
+    private final HolidayCalendar holidayCalendar;
+
     public BigDecimal calculateDynamicPrice(Inventory inventory) {
         PricingStrategy pricingStrategy = new BasePriceStrategy();
 
@@ -16,11 +25,22 @@ public class PricingService {
         pricingStrategy = new SurgePricingStrategy(pricingStrategy);
         pricingStrategy = new OccupancyPriceStrategy(pricingStrategy);
         pricingStrategy = new UrgencyPricingStrategy(pricingStrategy);
-        pricingStrategy = new HolidayPricingStrategy(pricingStrategy);
+        pricingStrategy = new HolidayPricingStrategy(pricingStrategy, holidayCalendar);
 
         return pricingStrategy.calculatePrice(inventory);
     }
 
+    // Same prices as calculateDynamicPrice rounded to cents, without allocating per room-day, for bulk updates;
+    // holidays are those of the default region until narrowed down with PricingPipeline.forRegion
+    public PricingPipeline compile(LocalDate today) {
+        return new PricingPipeline(RULES, today, holidayCalendar);
+    }
+
+    // The compiled rules in order, for callers that apply them elsewhere, e.g. in SQL
+    public List<PricingRule> rules() {
+        return RULES;
+    }
+
     // Return the sum of price of this inventory
     public BigDecimal calculateTotalPrice(List<Inventory> inventoryList) {
         return inventoryList.stream()
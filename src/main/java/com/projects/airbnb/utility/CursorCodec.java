@@ -0,0 +1,81 @@
+package com.projects.airbnb.utility;
+
+import com.projects.airbnb.dto.CursorPage;
+import com.projects.airbnb.exception.BadRequestException;
+import com.projects.airbnb.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque continuation tokens for keyset pagination. A token is the URL-safe Base64 form of the sort key
+ * of the last row on the previous page; clients only pass it back unchanged.
+ */
+public final class CursorCodec {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String SEPARATOR = "|";
+
+    private CursorCodec() {
+    }
+
+    // Page sizes are checked before fetching: the keyset queries read size + 1 rows
+    public static int checkSize(Integer size) {
+        if (size == null || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return size;
+    }
+
+    public static int checkPage(Integer page) {
+        if (page == null || page < 0) {
+            throw new BadRequestException("Page number must not be negative");
+        }
+        return page;
+    }
+
+    public static String encode(Object... sortKey) {
+        StringBuilder raw = new StringBuilder();
+        for (Object part : sortKey) {
+            if (!raw.isEmpty()) raw.append(SEPARATOR);
+            raw.append(part);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String[] decode(String cursor, int parts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] sortKey = raw.split("\\|", -1);
+            if (sortKey.length != parts) {
+                throw new InvalidCursorException("Invalid page cursor: " + cursor);
+            }
+            return sortKey;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid page cursor: " + cursor);
+        }
+    }
+
+    public static Long decodeId(String cursor) {
+        try {
+            return Long.valueOf(decode(cursor, 1)[0]);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid page cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Builds a page from rows fetched with a limit of {@code size + 1}; the extra row only signals that
+     * another page exists and is not returned.
+     */
+    public static <T> CursorPage<T> toPage(List<T> rows, int size, Function<T, String> cursorOf) {
+        checkSize(size);
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(content.getLast()) : null;
+        return new CursorPage<>(List.copyOf(content), size, nextCursor, hasNext);
+    }
+}
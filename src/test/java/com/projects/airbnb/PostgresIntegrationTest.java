@@ -0,0 +1,33 @@
+package com.projects.airbnb;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Base for tests that need the real schema and PostgreSQL-specific SQL. One container is shared by all
+ * subclasses so the cached application context stays valid; the tests are skipped where Docker is missing.
+ */
+@SpringBootTest(properties = {
+        "DB_PASS=test",
+        "JWT_SECRET_KEY=dGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtMTIzNA==",
+        "STRIPE_SECRET=sk_test_dummy",
+        "STRIPE_WEBHOOK=whsec_dummy",
+        "spring.jpa.show-sql=false"
+})
+@Testcontainers(disabledWithoutDocker = true)
+@Import(TestFixtures.class)
+public abstract class PostgresIntegrationTest {
+
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    static {
+        if (DockerClientFactory.instance().isDockerAvailable()) {
+            POSTGRES.start();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.projects.airbnb;
+
+import com.projects.airbnb.entity.Hotel;
+import com.projects.airbnb.entity.Room;
+import com.projects.airbnb.entity.User;
+import com.projects.airbnb.entity.enums.Role;
+import com.projects.airbnb.repository.HotelRepository;
+import com.projects.airbnb.repository.RoomRepository;
+import com.projects.airbnb.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@TestComponent
+@RequiredArgsConstructor
+public class TestFixtures {
+
+    private final UserRepository userRepository;
+    private final HotelRepository hotelRepository;
+    private final RoomRepository roomRepository;
+
+    public Hotel hotel(String city, boolean active) {
+        User owner = new User();
+        owner.setEmail(UUID.randomUUID() + "@example.com");
+        owner.setPassword("password");
+        owner.setName("Owner");
+        owner.getRoles().add(Role.HOTEL_MANAGER);
+        userRepository.save(owner);
+
+        Hotel hotel = new Hotel();
+        hotel.setName("Hotel " + UUID.randomUUID());
+        hotel.setCity(city);
+        hotel.setIsActive(active);
+        hotel.setOwner(owner);
+        return hotelRepository.save(hotel);
+    }
+
+    public Room room(Hotel hotel, String basePrice, int totalCount) {
+        Room room = new Room();
+        room.setHotel(hotel);
+        room.setType("Deluxe");
+        room.setBasePrice(new BigDecimal(basePrice));
+        room.setTotalCount(totalCount);
+        room.setCapacity(2);
+        return roomRepository.save(room);
+    }
+}
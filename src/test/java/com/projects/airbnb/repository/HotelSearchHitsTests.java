@@ -0,0 +1,102 @@
+package com.projects.airbnb.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projects.airbnb.PostgresIntegrationTest;
+import com.projects.airbnb.TestFixtures;
+import com.projects.airbnb.dto.HotelPriceDto;
+import com.projects.airbnb.entity.Hotel;
+import com.projects.airbnb.entity.HotelContactInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures a 50-hit search page as the flat projection against the previous shape, which serialized the
+ * Hotel entity with its owner and contact info next to the price. Latency is the p99 of loading and
+ * serializing the page in this JVM against the test container, after a warm-up; it compares the two shapes
+ * and says nothing about production latency.
+ */
+@Slf4j
+class HotelSearchHitsTests extends PostgresIntegrationTest {
+
+    private static final int PAGE_SIZE = 50;
+    private static final int WARM_UP_RUNS = 50;
+    private static final int RUNS = 200;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void projectionShrinksTheSearchPage() throws Exception {
+        List<Long> hotelIds = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Hotel hotel = fixtures.hotel("Goa", true);
+            hotel.setPhotos(new String[]{"https://img.example.com/" + i + "/1.jpg", "https://img.example.com/" + i + "/2.jpg"});
+            hotel.setAmenities(new String[]{"wifi", "pool"});
+            HotelContactInfo contactInfo = new HotelContactInfo();
+            contactInfo.setAddress("Beach Road " + i);
+            contactInfo.setPhoneNumber("+91 98000 000" + i);
+            contactInfo.setEmail("frontdesk" + i + "@example.com");
+            contactInfo.setLocation("15.49,73.82");
+            hotel.setContactInfo(contactInfo);
+            hotelIds.add(hotelRepository.save(hotel).getId());
+        }
+
+        List<HotelPriceDto> hits = hotelRepository.findSearchHits(hotelIds);
+        List<Map<String, Object>> entities = hotelRepository.findAllById(hotelIds).stream()
+                .map(hotel -> {
+                    Map<String, Object> hit = new LinkedHashMap<>();
+                    hit.put("hotel", hotel);
+                    hit.put("price", 100.0);
+                    return hit;
+                })
+                .toList();
+
+        int projectionBytes = objectMapper.writeValueAsBytes(hits).length;
+        int entityBytes = objectMapper.writeValueAsBytes(entities).length;
+        long projectionP99 = p99Micros(() -> objectMapper.writeValueAsBytes(hotelRepository.findSearchHits(hotelIds)));
+        long entityP99 = p99Micros(() -> objectMapper.writeValueAsBytes(hotelRepository.findAllById(hotelIds)));
+        log.info("{}-hit search page: projection {} bytes (p99 {} µs), entities {} bytes (p99 {} µs)", PAGE_SIZE,
+                projectionBytes, projectionP99, entityBytes, entityP99);
+
+        assertThat(hits).hasSize(PAGE_SIZE);
+        assertThat(hits).allSatisfy(hit -> assertThat(hit.getPhoto()).endsWith("/1.jpg"));
+        assertThat(objectMapper.writeValueAsString(hits)).doesNotContain("owner", "password", "frontdesk");
+        assertThat(projectionBytes).isLessThan(entityBytes / 2);
+        // one column list against the entity with its eager owner; the margin absorbs timer noise
+        assertThat(projectionP99).isLessThanOrEqualTo(entityP99 * 3 / 2);
+    }
+
+    private long p99Micros(PageLoad load) throws Exception {
+        for (int i = 0; i < WARM_UP_RUNS; i++) {
+            load.run();
+        }
+        long[] micros = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            load.run();
+            micros[i] = (System.nanoTime() - start) / 1_000;
+        }
+        Arrays.sort(micros);
+        return micros[RUNS * 99 / 100 - 1];
+    }
+
+    @FunctionalInterface
+    private interface PageLoad {
+        Object run() throws Exception;
+    }
+}
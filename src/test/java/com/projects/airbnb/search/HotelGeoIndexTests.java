@@ -0,0 +1,50 @@
+package com.projects.airbnb.search;
+
+import com.projects.airbnb.PostgresIntegrationTest;
+import com.projects.airbnb.TestFixtures;
+import com.projects.airbnb.entity.Hotel;
+import com.projects.airbnb.repository.HotelRepository;
+import com.projects.airbnb.search.HotelGeoIndex.HotelDistance;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotelGeoIndexTests extends PostgresIntegrationTest {
+
+    @Autowired
+    private HotelGeoIndex hotelGeoIndex;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void databaseFallbackMatchesTheGrid() {
+        // around the antimeridian, where the bounding box wraps
+        Long west = located(-16.50, 179.95, true);
+        Long east = located(-16.52, -179.97, true);
+        Long far = located(-17.80, 178.40, true);
+        Long inactive = located(-16.51, 179.96, false);
+
+        hotelGeoIndex.rebuild();
+        List<HotelDistance> fromGrid = hotelGeoIndex.findWithin(-16.51, 179.99, 25).orElseThrow();
+        List<HotelDistance> fromDatabase = hotelGeoIndex.findWithinFromDatabase(-16.51, 179.99, 25);
+
+        assertThat(fromDatabase).extracting(HotelDistance::hotelId)
+                .contains(west, east)
+                .doesNotContain(far, inactive);
+        assertThat(fromDatabase).isEqualTo(fromGrid);
+    }
+
+    private Long located(double latitude, double longitude, boolean active) {
+        Hotel hotel = fixtures.hotel("Suva", active);
+        hotel.setLatitude(latitude);
+        hotel.setLongitude(longitude);
+        return hotelRepository.save(hotel).getId();
+    }
+}
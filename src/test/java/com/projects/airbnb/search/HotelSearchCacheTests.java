@@ -0,0 +1,72 @@
+package com.projects.airbnb.search;
+
+import com.projects.airbnb.dto.HotelSearchRequest;
+import com.projects.airbnb.event.SearchResultsChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotelSearchCacheTests {
+
+    private static final LocalDate CHECK_IN = LocalDate.of(2030, 5, 10);
+    private static final LocalDate CHECK_OUT = LocalDate.of(2030, 5, 12);
+
+    private HotelSearchCache cache;
+    private final AtomicInteger searches = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = new HotelSearchCache(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofMinutes(1));
+        cache.init();
+    }
+
+    @Test
+    void keepsPagesUntilTheirCityAndDatesChange() {
+        search("Pune");
+        search("Pune");
+        assertThat(searches).hasValue(1);
+
+        cache.onSearchResultsChanged(new SearchResultsChangedEvent("Goa", CHECK_IN, CHECK_OUT));
+        cache.onSearchResultsChanged(new SearchResultsChangedEvent("Pune", CHECK_OUT.plusDays(1), CHECK_OUT.plusDays(5)));
+        search("Pune");
+        assertThat(searches).hasValue(1);
+
+        cache.onSearchResultsChanged(new SearchResultsChangedEvent("Pune", CHECK_OUT, CHECK_OUT));
+        search("Pune");
+        assertThat(searches).hasValue(2);
+    }
+
+    @Test
+    void wholeCityAndEverywhereDropMatchingPages() {
+        search("Pune");
+        search("Goa");
+
+        cache.onSearchResultsChanged(SearchResultsChangedEvent.wholeCity("Goa"));
+        search("Pune");
+        search("Goa");
+        assertThat(searches).hasValue(3);
+
+        cache.onSearchResultsChanged(SearchResultsChangedEvent.everywhere());
+        search("Pune");
+        search("Goa");
+        assertThat(searches).hasValue(5);
+    }
+
+    private void search(String city) {
+        HotelSearchRequest request = new HotelSearchRequest();
+        request.setCity(city);
+        request.setStartDate(CHECK_IN);
+        request.setEndDate(CHECK_OUT);
+        cache.get(request, false, searches::incrementAndGet);
+    }
+}
@@ -0,0 +1,116 @@
+package com.projects.airbnb.service;
+
+import com.projects.airbnb.PostgresIntegrationTest;
+import com.projects.airbnb.TestFixtures;
+import com.projects.airbnb.entity.Holiday;
+import com.projects.airbnb.entity.Hotel;
+import com.projects.airbnb.entity.Inventory;
+import com.projects.airbnb.entity.Room;
+import com.projects.airbnb.repository.HolidayRepository;
+import com.projects.airbnb.repository.HotelRepository;
+import com.projects.airbnb.repository.InventoryRepository;
+import com.projects.airbnb.service.impl.InventoryService;
+import com.projects.airbnb.strategy.HolidayCalendar;
+import com.projects.airbnb.strategy.PricingPipeline;
+import com.projects.airbnb.strategy.PricingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * InventoryRepository.repriceHotel restates the pricing rules in SQL; on a generated dataset it has to store
+ * the price the Java pipeline computes for every row.
+ */
+class DatabasePricingParityTests extends PostgresIntegrationTest {
+
+    private static final String REGION = "XT";
+    private static final int DAYS = 30;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private HolidayRepository holidayRepository;
+
+    @Autowired
+    private HolidayCalendar holidayCalendar;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void sqlRepricingMatchesThePipeline() {
+        LocalDate today = LocalDate.now();
+        LocalDate endDate = today.plusDays(DAYS - 1);
+
+        Hotel hotel = fixtures.hotel("Parity", true);
+        hotel.setRegion(REGION);
+        hotelRepository.save(hotel);
+        List<Room> rooms = List.of(
+                fixtures.room(hotel, "99.99", 5),
+                fixtures.room(hotel, "1234.57", 4),
+                fixtures.room(hotel, "0.01", 1));
+        inventoryService.initializeRoomsForAYear(rooms);
+
+        for (int day : new int[]{0, 6, 7, 18}) {
+            Holiday holiday = new Holiday();
+            holiday.setRegion(REGION);
+            holiday.setDate(today.plusDays(day));
+            holidayRepository.save(holiday);
+        }
+        holidayCalendar.reload();
+
+        // random surge and occupancy, including fully booked and over-80% days
+        Random random = new Random(7);
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Room room : rooms) {
+                for (Inventory inventory : inventoryRepository.findByRoomOrderByRoom(room)) {
+                    if (inventory.getDate().isAfter(endDate)) continue;
+                    inventory.setSurgeFactor(BigDecimal.valueOf(random.nextInt(250) + 50, 2));
+                    inventory.setBookedCount(random.nextInt(inventory.getTotalCount() + 1));
+                }
+            }
+        });
+
+        PricingPipeline pipeline = pricingService.compile(today).forRegion(REGION);
+        int updated = transactionTemplate.execute(status -> inventoryRepository.repriceHotel(hotel.getId(), today, endDate,
+                today, today.plusDays(PricingPipeline.URGENCY_DAYS),
+                pipeline.holidaysBetween(today, endDate).toArray(LocalDate[]::new)));
+        assertThat(updated).isEqualTo(rooms.size() * DAYS);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Room room : rooms) {
+                for (Inventory inventory : inventoryRepository.findByRoomOrderByRoom(room)) {
+                    if (inventory.getDate().isAfter(endDate)) continue;
+                    assertThat(inventory.getPrice())
+                            .as("room %d on %s", room.getId(), inventory.getDate())
+                            .isEqualByComparingTo(pipeline.calculatePrice(inventory));
+                }
+            }
+        });
+    }
+
+    @Test
+    void sqlAppliesTheCompiledRules() {
+        assertThat(InventoryRepository.REPRICE_HOTEL_RULES).isEqualTo(pricingService.rules());
+    }
+}
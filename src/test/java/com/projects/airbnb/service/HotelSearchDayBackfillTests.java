@@ -0,0 +1,60 @@
+package com.projects.airbnb.service;
+
+import com.projects.airbnb.PostgresIntegrationTest;
+import com.projects.airbnb.TestFixtures;
+import com.projects.airbnb.entity.Hotel;
+import com.projects.airbnb.entity.Room;
+import com.projects.airbnb.repository.HotelSearchDayRepository;
+import com.projects.airbnb.service.impl.InventoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Inventory written while the application was down, or before the search day table existed, has no search
+ * days until the startup backfill rewrites them.
+ */
+class HotelSearchDayBackfillTests extends PostgresIntegrationTest {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private HotelSearchDayService hotelSearchDayService;
+
+    @Autowired
+    private HotelSearchDayRepository hotelSearchDayRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void startupBackfillRestoresMissingSearchDays() {
+        LocalDate today = LocalDate.now();
+        Hotel hotel = fixtures.hotel("Backfill", true);
+        Room room = fixtures.room(hotel, "100.00", 4);
+        inventoryService.initializeRoomsForAYear(List.of(room));
+        hotelSearchDayService.refreshDirtyHotels();
+        jdbcTemplate.update("DELETE FROM hotel_search_day WHERE hotel_id = ?", hotel.getId());
+
+        hotelSearchDayService.backfillOnStartup();
+        hotelSearchDayService.refreshDirtyHotels();
+
+        assertThat(transactionTemplate.execute(status ->
+                hotelSearchDayRepository.findByHotelAndDateBetween(hotel, today, today.plusDays(6))))
+                .hasSize(7)
+                .allSatisfy(day -> assertThat(day.getFreeCount()).isEqualTo(4));
+    }
+}
@@ -0,0 +1,106 @@
+package com.projects.airbnb.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projects.airbnb.PostgresIntegrationTest;
+import com.projects.airbnb.TestFixtures;
+import com.projects.airbnb.dto.HotelPriceDto;
+import com.projects.airbnb.dto.HotelSearchRequest;
+import com.projects.airbnb.entity.Hotel;
+import com.projects.airbnb.entity.Room;
+import com.projects.airbnb.event.HotelChangedEvent;
+import com.projects.airbnb.repository.HotelRepository;
+import com.projects.airbnb.repository.HotelSearchDayRepository;
+import com.projects.airbnb.search.HotelAmenityIndex;
+import com.projects.airbnb.service.impl.InventoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * With the availability index switched off the stream reads the search-day table over JDBC, and must return
+ * what the repository query returns.
+ */
+@TestPropertySource(properties = "search.availability-index.enabled=false")
+class HotelSearchStreamTests extends PostgresIntegrationTest {
+
+    @Autowired
+    private HotelSearchStreamService hotelSearchStreamService;
+
+    @Autowired
+    private HotelSearchDayService hotelSearchDayService;
+
+    @Autowired
+    private HotelSearchDayRepository hotelSearchDayRepository;
+
+    @Autowired
+    private HotelAmenityIndex hotelAmenityIndex;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void streamMatchesTheRepositoryQuery() throws Exception {
+        String city = "City " + UUID.randomUUID();
+        LocalDate checkIn = LocalDate.now().plusDays(20);
+        LocalDate checkOut = checkIn.plusDays(2);
+
+        List<Room> rooms = new ArrayList<>();
+        List<Long> withPool = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Hotel hotel = fixtures.hotel(city, true);
+            if (i % 2 == 0) {
+                hotel.setAmenities(new String[]{"Pool"});
+                hotelRepository.save(hotel);
+                withPool.add(hotel.getId());
+            }
+            rooms.add(fixtures.room(hotel, (100 + 10 * i) + ".00", 2));
+        }
+        inventoryService.initializeRoomsForAYear(rooms);
+        rooms.forEach(room -> hotelSearchDayService.onHotelChanged(new HotelChangedEvent(room.getHotel().getId())));
+        hotelSearchDayService.refreshDirtyHotels();
+        hotelAmenityIndex.rebuild();
+
+        HotelSearchRequest request = new HotelSearchRequest();
+        request.setCity(city);
+        request.setStartDate(checkIn);
+        request.setEndDate(checkOut);
+        List<HotelPriceDto> expected = hotelSearchDayRepository.findHotelsWithAvailability(
+                city, checkIn, checkOut, 1, 3L, PageRequest.of(0, 10)).getContent();
+
+        assertThat(expected).hasSize(4);
+        assertThat(streamed(request)).usingRecursiveFieldByFieldElementComparator().isEqualTo(expected);
+
+        request.setAmenities(List.of("pool"));
+        assertThat(streamed(request)).extracting(HotelPriceDto::getHotelId).containsExactlyElementsOf(withPool);
+    }
+
+    private List<HotelPriceDto> streamed(HotelSearchRequest request) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        hotelSearchStreamService.stream(request, false).writeTo(out);
+
+        List<HotelPriceDto> hits = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isBlank()) hits.add(objectMapper.readValue(line, HotelPriceDto.class));
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,114 @@
+package com.projects.airbnb.service;
+
+import com.projects.airbnb.PostgresIntegrationTest;
+import com.projects.airbnb.TestFixtures;
+import com.projects.airbnb.entity.Holiday;
+import com.projects.airbnb.entity.Hotel;
+import com.projects.airbnb.entity.Inventory;
+import com.projects.airbnb.entity.Room;
+import com.projects.airbnb.repository.HolidayRepository;
+import com.projects.airbnb.repository.HotelRepository;
+import com.projects.airbnb.repository.HotelSearchDayRepository;
+import com.projects.airbnb.repository.InventoryRepository;
+import com.projects.airbnb.service.impl.InventoryService;
+import com.projects.airbnb.strategy.HolidayCalendar;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A day appended by the horizon job after the price run has moved its window must still get priced and
+ * become searchable.
+ */
+class InventoryHorizonPricingTests extends PostgresIntegrationTest {
+
+    private static final String REGION = "XH";
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryHorizonService inventoryHorizonService;
+
+    @Autowired
+    private PricingUpdateService pricingUpdateService;
+
+    @Autowired
+    private HotelSearchDayService hotelSearchDayService;
+
+    @Autowired
+    private HotelSearchDayRepository hotelSearchDayRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private HolidayRepository holidayRepository;
+
+    @Autowired
+    private HolidayCalendar holidayCalendar;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Value("${inventory.horizon.days}")
+    private int horizonDays;
+
+    @Test
+    void appendedDayIsPricedByTheNextRun() {
+        LocalDate newDay = LocalDate.now().plusDays(horizonDays);
+
+        Hotel hotel = fixtures.hotel("Horizon", true);
+        hotel.setRegion(REGION);
+        hotelRepository.save(hotel);
+        Room room = fixtures.room(hotel, "100.00", 4);
+        inventoryService.initializeRoomsForAYear(List.of(room));
+        // as if the room was seeded yesterday, one day short of today's horizon
+        jdbcTemplate.update("DELETE FROM inventory WHERE room_id = ? AND date = ?", room.getId(), newDay);
+
+        Holiday holiday = new Holiday();
+        holiday.setRegion(REGION);
+        holiday.setDate(newDay);
+        holidayRepository.save(holiday);
+        holidayCalendar.reload();
+
+        // the midnight run, then the horizon job appends the day at its base price
+        pricingUpdateService.updatePrices();
+        inventoryHorizonService.extendHorizon();
+        assertThat(priceOn(room, newDay)).isEqualByComparingTo("100.00");
+
+        pricingUpdateService.updatePrices();
+        hotelSearchDayService.refreshDirtyHotels();
+
+        assertThat(priceOn(room, newDay)).isEqualByComparingTo("125.00");
+        assertThat(transactionTemplate.execute(status ->
+                hotelSearchDayRepository.findByHotelAndDateBetween(hotel, newDay, newDay)))
+                .singleElement()
+                .satisfies(day -> assertThat(day.getPrice()).isEqualByComparingTo("125.00"));
+    }
+
+    private BigDecimal priceOn(Room room, LocalDate date) {
+        return inventoryRepository.findByRoomOrderByRoom(room).stream()
+                .filter(inventory -> inventory.getDate().equals(date))
+                .map(Inventory::getPrice)
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,64 @@
+package com.projects.airbnb.service;
+
+import com.projects.airbnb.PostgresIntegrationTest;
+import com.projects.airbnb.TestFixtures;
+import com.projects.airbnb.entity.Hotel;
+import com.projects.airbnb.entity.Inventory;
+import com.projects.airbnb.entity.Room;
+import com.projects.airbnb.repository.InventoryRepository;
+import com.projects.airbnb.service.impl.InventoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InventorySeedingTests extends PostgresIntegrationTest {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Value("${inventory.horizon.days}")
+    private int horizonDays;
+
+    @Test
+    void seedsOneRowPerDayOfTheHorizon() {
+        Hotel hotel = fixtures.hotel("Pune", true);
+        Room room = fixtures.room(hotel, "100.00", 5);
+
+        int created = inventoryService.initializeRoomsForAYear(List.of(room));
+
+        List<Inventory> inventory = inventoryRepository.findByRoomOrderByRoom(room);
+        assertThat(created).isEqualTo(horizonDays + 1);
+        assertThat(inventory).hasSize(horizonDays + 1);
+        assertThat(inventory).extracting(Inventory::getDate)
+                .contains(LocalDate.now(), LocalDate.now().plusDays(horizonDays))
+                .doesNotHaveDuplicates();
+        assertThat(inventory).allSatisfy(day -> {
+            assertThat(day.getTotalCount()).isEqualTo(5);
+            assertThat(day.getBookedCount()).isZero();
+            assertThat(day.getPrice()).isEqualByComparingTo("100.00");
+        });
+    }
+
+    @Test
+    void seedingTwiceKeepsTheExistingRows() {
+        Hotel hotel = fixtures.hotel("Pune", true);
+        Room room = fixtures.room(hotel, "80.00", 3);
+
+        inventoryService.initializeRoomsForAYear(List.of(room));
+        int createdAgain = inventoryService.initializeRoomsForAYear(List.of(room));
+
+        assertThat(createdAgain).isZero();
+        assertThat(inventoryRepository.findByRoomOrderByRoom(room)).hasSize(horizonDays + 1);
+    }
+}
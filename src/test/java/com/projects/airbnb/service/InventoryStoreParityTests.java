@@ -0,0 +1,119 @@
+package com.projects.airbnb.service;
+
+import com.projects.airbnb.PostgresIntegrationTest;
+import com.projects.airbnb.TestFixtures;
+import com.projects.airbnb.entity.Hotel;
+import com.projects.airbnb.entity.Inventory;
+import com.projects.airbnb.entity.Room;
+import com.projects.airbnb.repository.InventoryRepository;
+import com.projects.airbnb.repository.RoomMonthInventoryRepository;
+import com.projects.airbnb.repository.RoomRepository;
+import com.projects.airbnb.service.impl.InventoryStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the same booking lifecycle against each storage layout and compares the visible inventory after every
+ * step, so the per-day conditions the compact layout reimplements in Java cannot drift from the UPDATEs in
+ * InventoryRepository.
+ */
+class InventoryStoreParityTests extends PostgresIntegrationTest {
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private RoomMonthInventoryRepository roomMonthInventoryRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void compactStoreMatchesRowStoreThroughBookingLifecycle() {
+        Hotel hotel = fixtures.hotel("Pune", true);
+        Room room = fixtures.room(hotel, "120.00", 3);
+        // long enough to always cross a month boundary
+        LocalDate start = LocalDate.now().plusDays(20);
+        LocalDate end = start.plusDays(40);
+
+        List<List<Day>> rows = runLifecycle(new RowInventoryStore(inventoryRepository), room, start, end);
+        List<List<Day>> compact = runLifecycle(
+                new CompactInventoryStore(roomMonthInventoryRepository, roomRepository), room, start, end);
+
+        assertThat(compact).hasSameSizeAs(rows);
+        for (int step = 0; step < rows.size(); step++) {
+            assertThat(compact.get(step)).as("step %d", step).isEqualTo(rows.get(step));
+        }
+    }
+
+    private List<List<Day>> runLifecycle(InventoryStore store, Room room, LocalDate start, LocalDate end) {
+        Long roomId = room.getId();
+        LocalDate stayStart = start.plusDays(8);
+        LocalDate stayEnd = start.plusDays(14);
+        LocalDate closedStart = start.plusDays(12);
+        LocalDate closedEnd = start.plusDays(16);
+
+        List<Consumer<InventoryStore>> steps = List.of(
+                s -> s.initializeRooms(List.of(roomId), start, end),
+                s -> s.initBooking(roomId, stayStart, stayEnd, 2),
+                // one room left on those days, so this reservation must not apply anywhere
+                s -> s.initBooking(roomId, stayStart, stayEnd, 2),
+                s -> s.confirmBooking(roomId, stayStart, stayEnd, 2),
+                s -> s.updateInventory(roomId, closedStart, closedEnd, true, new BigDecimal("1.50")),
+                // partly closed: only the open day is reserved
+                s -> s.initBooking(roomId, closedEnd.minusDays(1), closedEnd.plusDays(1), 1),
+                // closed days keep their booking
+                s -> s.cancelBooking(roomId, stayStart, stayEnd, 2),
+                s -> s.updateInventory(roomId, closedStart, closedEnd, false, BigDecimal.ONE),
+                s -> s.confirmBooking(roomId, closedEnd.plusDays(1), closedEnd.plusDays(1), 1),
+                // re-seeding must leave every counter alone
+                s -> s.initializeRooms(List.of(roomId), start, end)
+        );
+
+        List<List<Day>> snapshots = new ArrayList<>();
+        for (Consumer<InventoryStore> step : steps) {
+            transactionTemplate.executeWithoutResult(status -> step.accept(store));
+            snapshots.add(transactionTemplate.execute(status -> snapshot(store, room, start, end)));
+        }
+        return snapshots;
+    }
+
+    private List<Day> snapshot(InventoryStore store, Room room, LocalDate start, LocalDate end) {
+        List<LocalDate> bookable = store.findAndLockAvailableInventory(room.getId(), start, end, 1).stream()
+                .map(Inventory::getDate)
+                .toList();
+        return store.findByRoom(room).stream()
+                .map(inventory -> new Day(
+                        inventory.getDate(),
+                        inventory.getTotalCount(),
+                        inventory.getBookedCount(),
+                        inventory.getReservedCount(),
+                        inventory.getClosed(),
+                        inventory.getSurgeFactor().setScale(2, RoundingMode.UNNECESSARY),
+                        inventory.getPrice().setScale(2, RoundingMode.UNNECESSARY),
+                        bookable.contains(inventory.getDate())))
+                .sorted(Comparator.comparing(Day::date))
+                .toList();
+    }
+
+    private record Day(LocalDate date, int total, int booked, int reserved, boolean closed,
+                       BigDecimal surge, BigDecimal price, boolean bookable) {
+    }
+}
@@ -0,0 +1,187 @@
+package com.projects.airbnb.service;
+
+import com.projects.airbnb.PostgresIntegrationTest;
+import com.projects.airbnb.TestFixtures;
+import com.projects.airbnb.dto.HotelPriceDto;
+import com.projects.airbnb.entity.Hotel;
+import com.projects.airbnb.entity.Room;
+import com.projects.airbnb.event.HotelChangedEvent;
+import com.projects.airbnb.repository.HotelSearchDayRepository;
+import com.projects.airbnb.repository.InventoryRepository;
+import com.projects.airbnb.search.HotelAvailabilityIndex;
+import com.projects.airbnb.search.HotelAvailabilityIndex.HotelAvailability;
+import com.projects.airbnb.search.HotelAvailabilityIndex.StayAvailability;
+import com.projects.airbnb.service.impl.InventoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The availability index and the search-day table must agree on which hotels match, since a search switches
+ * between them depending on whether the index is ready.
+ */
+class SearchAvailabilityParityTests extends PostgresIntegrationTest {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private HotelSearchDayService hotelSearchDayService;
+
+    @Autowired
+    private HotelSearchDayRepository hotelSearchDayRepository;
+
+    @Autowired
+    private HotelAvailabilityIndex hotelAvailabilityIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void hotelMatchesOnlyWhenOneRoomTypeIsFreeEveryNight() throws InterruptedException {
+        String city = "City " + UUID.randomUUID();
+        LocalDate checkIn = LocalDate.now().plusDays(30);
+        LocalDate checkOut = checkIn.plusDays(1);
+
+        // every night has a free room, but never in the same room type
+        Hotel split = fixtures.hotel(city, true);
+        Room splitCheap = fixtures.room(split, "100.00", 1);
+        Room splitDear = fixtures.room(split, "200.00", 1);
+
+        Hotel whole = fixtures.hotel(city, true);
+        Room wholeCheap = fixtures.room(whole, "150.00", 1);
+        Room wholeDear = fixtures.room(whole, "300.00", 2);
+
+        inventoryService.initializeRoomsForAYear(List.of(splitCheap, splitDear, wholeCheap, wholeDear));
+        transactionTemplate.executeWithoutResult(status -> {
+            inventoryRepository.initBooking(splitCheap.getId(), checkOut, checkOut, 1);
+            inventoryRepository.initBooking(splitDear.getId(), checkIn, checkIn, 1);
+        });
+        hotelSearchDayService.onHotelChanged(new HotelChangedEvent(split.getId()));
+        hotelSearchDayService.onHotelChanged(new HotelChangedEvent(whole.getId()));
+        hotelAvailabilityIndex.onHotelChanged(new HotelChangedEvent(split.getId()));
+        hotelAvailabilityIndex.onHotelChanged(new HotelChangedEvent(whole.getId()));
+
+        hotelSearchDayService.refreshDirtyHotels();
+        List<HotelPriceDto> fromTable = hotelSearchDayRepository.findHotelsWithAvailability(
+                city, checkIn, checkOut, 1, 2L, PageRequest.of(0, 10)).getContent();
+        List<HotelAvailability> fromIndex = indexed(city, checkIn, checkOut);
+
+        assertThat(fromTable).extracting(HotelPriceDto::getHotelId).containsExactly(whole.getId());
+        assertThat(fromTable).extracting(HotelPriceDto::getPrice).containsExactly(150.0);
+        assertThat(fromIndex).containsExactly(new HotelAvailability(whole.getId(), 150.0));
+
+        // two rooms for the stay only fit in the dearer room type
+        assertThat(hotelSearchDayRepository.findHotelsWithAvailability(
+                city, checkIn, checkOut, 2, 2L, PageRequest.of(0, 10)).getContent())
+                .extracting(HotelPriceDto::getPrice).containsExactly(300.0);
+        assertThat(hotelAvailabilityIndex.findAvailable(city, checkIn, checkOut, 2)).hasValue(
+                List.of(new HotelAvailability(whole.getId(), 300.0)));
+    }
+
+    @Test
+    void cheapestStaysAgreeWithTheIndex() throws InterruptedException {
+        String city = "City " + UUID.randomUUID();
+        LocalDate windowStart = LocalDate.now().plusDays(40);
+        LocalDate windowEnd = windowStart.plusDays(6);
+
+        Hotel hotel = fixtures.hotel(city, true);
+        Room cheap = fixtures.room(hotel, "100.00", 1);
+        Room dear = fixtures.room(hotel, "180.00", 1);
+        Hotel full = fixtures.hotel(city, true);
+        Room fullRoom = fixtures.room(full, "50.00", 1);
+
+        inventoryService.initializeRoomsForAYear(List.of(cheap, dear, fullRoom));
+        transactionTemplate.executeWithoutResult(status -> {
+            // the cheap room type has no two free nights in a row before the fifth day
+            inventoryRepository.initBooking(cheap.getId(), windowStart.plusDays(1), windowStart.plusDays(1), 1);
+            inventoryRepository.initBooking(cheap.getId(), windowStart.plusDays(3), windowStart.plusDays(3), 1);
+            inventoryRepository.initBooking(fullRoom.getId(), windowStart.plusDays(1), windowStart.plusDays(5), 1);
+        });
+        for (Hotel changed : List.of(hotel, full)) {
+            hotelSearchDayService.onHotelChanged(new HotelChangedEvent(changed.getId()));
+            hotelAvailabilityIndex.onHotelChanged(new HotelChangedEvent(changed.getId()));
+        }
+        hotelSearchDayService.refreshDirtyHotels();
+        indexed(city, windowStart, windowEnd);
+
+        List<StayAvailability> fromIndex = hotelAvailabilityIndex.findCheapestStays(city, windowStart, windowEnd, 2, 1)
+                .orElseThrow();
+        List<StayAvailability> fromTable = hotelSearchDayRepository.findCheapestStays(city, windowStart, windowEnd, 2, 1)
+                .stream()
+                .map(stay -> new StayAvailability(stay.getHotelId(), windowStart.plusDays(stay.getStartOffset()),
+                        stay.getTotalPrice() / 2))
+                .toList();
+
+        assertThat(fromIndex).containsExactly(new StayAvailability(hotel.getId(), windowStart.plusDays(4), 100.0));
+        assertThat(fromTable).isEqualTo(fromIndex);
+    }
+
+    @Test
+    void keysetPageResumesAtTheCentsKey() {
+        String city = "City " + UUID.randomUUID();
+        LocalDate checkIn = LocalDate.now().plusDays(50);
+        LocalDate checkOut = checkIn.plusDays(2);
+
+        // the two tied hotels average 100.0133... a night, a key the average alone cannot carry exactly
+        Hotel cheap = fixtures.hotel(city, true);
+        Room cheapRoom = fixtures.room(cheap, "90.00", 1);
+        Hotel tiedFirst = fixtures.hotel(city, true);
+        Room tiedFirstRoom = fixtures.room(tiedFirst, "100.01", 1);
+        Hotel tiedSecond = fixtures.hotel(city, true);
+        Room tiedSecondRoom = fixtures.room(tiedSecond, "100.01", 1);
+
+        inventoryService.initializeRoomsForAYear(List.of(cheapRoom, tiedFirstRoom, tiedSecondRoom));
+        for (Room room : List.of(tiedFirstRoom, tiedSecondRoom)) {
+            jdbcTemplate.update("UPDATE inventory SET price = 100.02 WHERE room_id = ? AND date = ?", room.getId(), checkIn);
+        }
+        for (Hotel changed : List.of(cheap, tiedFirst, tiedSecond)) {
+            hotelSearchDayService.onHotelChanged(new HotelChangedEvent(changed.getId()));
+        }
+        hotelSearchDayService.refreshDirtyHotels();
+
+        assertThat(hotelSearchDayRepository.findHotelsWithAvailabilityAfter(
+                city, checkIn, checkOut, 1, 3L, -1L, 0L, Limit.of(10)))
+                .extracting(HotelPriceDto::getHotelId)
+                .containsExactly(cheap.getId(), tiedFirst.getId(), tiedSecond.getId());
+        assertThat(hotelSearchDayRepository.findHotelsWithAvailabilityAfter(
+                city, checkIn, checkOut, 1, 3L, 27000L, cheap.getId(), Limit.of(10)))
+                .extracting(HotelPriceDto::getHotelId)
+                .containsExactly(tiedFirst.getId(), tiedSecond.getId());
+        assertThat(hotelSearchDayRepository.findHotelsWithAvailabilityAfter(
+                city, checkIn, checkOut, 1, 3L, 30004L, tiedFirst.getId(), Limit.of(10)))
+                .extracting(HotelPriceDto::getHotelId)
+                .containsExactly(tiedSecond.getId());
+    }
+
+    // waits for the startup build, then applies the marked hotels
+    private List<HotelAvailability> indexed(String city, LocalDate checkIn, LocalDate checkOut)
+            throws InterruptedException {
+        Optional<List<HotelAvailability>> result = Optional.empty();
+        for (int attempt = 0; attempt < 100 && result.isEmpty(); attempt++) {
+            result = hotelAvailabilityIndex.findAvailable(city, checkIn, checkOut, 1);
+            if (result.isEmpty()) Thread.sleep(100);
+        }
+        hotelAvailabilityIndex.refreshDirtyHotels();
+        return hotelAvailabilityIndex.findAvailable(city, checkIn, checkOut, 1).orElseThrow();
+    }
+}
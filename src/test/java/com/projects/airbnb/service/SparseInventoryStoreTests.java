@@ -0,0 +1,86 @@
+package com.projects.airbnb.service;
+
+import com.projects.airbnb.PostgresIntegrationTest;
+import com.projects.airbnb.TestFixtures;
+import com.projects.airbnb.entity.Inventory;
+import com.projects.airbnb.entity.Room;
+import com.projects.airbnb.repository.InventoryRepository;
+import com.projects.airbnb.repository.RoomRepository;
+import com.projects.airbnb.strategy.PricingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SparseInventoryStoreTests extends PostgresIntegrationTest {
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    private SparseInventoryStore store;
+    private Room room;
+
+    @BeforeEach
+    void setUp() {
+        store = new SparseInventoryStore(inventoryRepository, roomRepository, pricingService);
+        ReflectionTestUtils.setField(store, "horizonDays", 30);
+        room = fixtures.room(fixtures.hotel("Pune", true), "100.00", 2);
+    }
+
+    @Test
+    void virtualDaysArePricedLikeStoredRows() {
+        List<Inventory> days = transactionTemplate.execute(status -> store.findByRoom(room));
+
+        assertThat(days).hasSize(31);
+        assertThat(days).allSatisfy(day -> assertThat(day.getPrice())
+                .isEqualByComparingTo(pricingService.calculateDynamicPrice(day).setScale(2, RoundingMode.HALF_UP)));
+        // inside the urgency window the price is no longer the base price
+        assertThat(days.getFirst().getPrice()).isEqualByComparingTo("115.00");
+    }
+
+    @Test
+    void lockingWritesNothingUntilTheBookingIsMade() {
+        LocalDate checkIn = LocalDate.now().plusDays(10);
+        LocalDate checkOut = checkIn.plusDays(2);
+
+        List<Inventory> available = transactionTemplate.execute(status -> {
+            store.lockBeforeUpdate(room.getId(), checkIn, checkOut);
+            return store.findAndLockAvailableInventory(room.getId(), checkIn, checkOut, 2);
+        });
+        assertThat(available).extracting(Inventory::getDate)
+                .containsExactly(checkIn, checkIn.plusDays(1), checkOut);
+        assertThat(inventoryRepository.findByRoomOrderByRoom(room)).isEmpty();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            store.findAndLockAvailableInventory(room.getId(), checkIn, checkOut, 2);
+            store.initBooking(room.getId(), checkIn, checkOut, 2);
+        });
+        assertThat(inventoryRepository.findByRoomOrderByRoom(room))
+                .hasSize(3)
+                .allSatisfy(day -> assertThat(day.getReservedCount()).isEqualTo(2));
+
+        // every room of those days is now reserved
+        List<Inventory> afterBooking = transactionTemplate.execute(status ->
+                store.findAndLockAvailableInventory(room.getId(), checkIn, checkOut, 1));
+        assertThat(afterBooking).isEmpty();
+    }
+}
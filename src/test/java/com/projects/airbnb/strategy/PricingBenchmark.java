@@ -0,0 +1,137 @@
+package com.projects.airbnb.strategy;
+
+import com.projects.airbnb.entity.Holiday;
+import com.projects.airbnb.entity.Hotel;
+import com.projects.airbnb.entity.Inventory;
+import com.projects.airbnb.entity.Room;
+import com.projects.airbnb.repository.HolidayRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A year of room-days for 20 rooms priced through the decorator chain and through the compiled pipeline.
+ * Not part of the test run; start it with
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main PricingBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PricingBenchmark {
+
+    private static final int ROOMS = 20;
+    private static final int DAYS = 365;
+
+    private PricingService pricingService;
+    private PricingPipeline pipeline;
+    private List<Inventory> roomDays;
+    private long[] baseCents;
+    private long[] surgeHundredths;
+    private int[] bookedCounts;
+    private int[] totalCounts;
+    private long[] epochDays;
+
+    @Setup
+    public void generate() {
+        LocalDate today = LocalDate.now();
+        HolidayRepository holidayRepository = mock(HolidayRepository.class);
+        List<Holiday> holidays = new ArrayList<>();
+        for (int day = 0; day < DAYS; day += 30) {
+            Holiday holiday = new Holiday();
+            holiday.setRegion("IN");
+            holiday.setDate(today.plusDays(day));
+            holidays.add(holiday);
+        }
+        when(holidayRepository.findAll()).thenReturn(holidays);
+        HolidayCalendar holidayCalendar = new HolidayCalendar(holidayRepository, new DefaultResourceLoader(),
+                mock(ApplicationEventPublisher.class));
+        holidayCalendar.reload();
+        pricingService = new PricingService(holidayCalendar);
+        pipeline = pricingService.compile(today).forRegion("IN");
+
+        Random random = new Random(1);
+        Hotel hotel = new Hotel();
+        hotel.setRegion("IN");
+        roomDays = new ArrayList<>(ROOMS * DAYS);
+        for (int r = 0; r < ROOMS; r++) {
+            Room room = new Room();
+            room.setHotel(hotel);
+            room.setBasePrice(BigDecimal.valueOf(random.nextInt(50_000) + 1_000, 2));
+            for (int day = 0; day < DAYS; day++) {
+                int totalCount = random.nextInt(10) + 1;
+                roomDays.add(Inventory.builder()
+                        .hotel(hotel)
+                        .room(room)
+                        .date(today.plusDays(day))
+                        .totalCount(totalCount)
+                        .bookedCount(random.nextInt(totalCount + 1))
+                        .surgeFactor(BigDecimal.valueOf(random.nextInt(200) + 50, 2))
+                        .build());
+            }
+        }
+
+        int rows = roomDays.size();
+        baseCents = new long[rows];
+        surgeHundredths = new long[rows];
+        bookedCounts = new int[rows];
+        totalCounts = new int[rows];
+        epochDays = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            Inventory inventory = roomDays.get(i);
+            baseCents[i] = inventory.getRoom().getBasePrice().movePointRight(2).longValueExact();
+            surgeHundredths[i] = inventory.getSurgeFactor().movePointRight(2).longValueExact();
+            bookedCounts[i] = inventory.getBookedCount();
+            totalCounts[i] = inventory.getTotalCount();
+            epochDays[i] = inventory.getDate().toEpochDay();
+        }
+    }
+
+    @Benchmark
+    public void decoratorChain(Blackhole blackhole) {
+        for (Inventory inventory : roomDays) {
+            blackhole.consume(pricingService.calculateDynamicPrice(inventory));
+        }
+    }
+
+    @Benchmark
+    public void pipelineFromInventory(Blackhole blackhole) {
+        for (Inventory inventory : roomDays) {
+            blackhole.consume(pipeline.calculatePrice(inventory));
+        }
+    }
+
+    @Benchmark
+    public long pipelineInCents() {
+        long sum = 0;
+        for (int i = 0; i < baseCents.length; i++) {
+            sum += pipeline.priceCents(baseCents[i], surgeHundredths[i], bookedCounts[i], totalCounts[i], epochDays[i]);
+        }
+        return sum;
+    }
+}
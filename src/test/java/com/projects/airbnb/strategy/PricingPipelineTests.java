@@ -0,0 +1,120 @@
+package com.projects.airbnb.strategy;
+
+import com.projects.airbnb.entity.Holiday;
+import com.projects.airbnb.entity.Hotel;
+import com.projects.airbnb.entity.Inventory;
+import com.projects.airbnb.entity.Room;
+import com.projects.airbnb.repository.HolidayRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The compiled pipeline has to price every room-day exactly like the decorator chain, rounded to cents.
+ */
+class PricingPipelineTests {
+
+    private final LocalDate today = LocalDate.now();
+
+    private PricingService pricingService;
+    private PricingPipeline pipeline;
+
+    @BeforeEach
+    void compile() {
+        HolidayRepository holidayRepository = mock(HolidayRepository.class);
+        when(holidayRepository.findAll()).thenReturn(List.of(
+                holiday("IN", today.plusDays(2)),
+                holiday("IN-MH", today.plusDays(9)),
+                holiday("IN", today.plusYears(2).withDayOfYear(1))));
+        HolidayCalendar holidayCalendar = new HolidayCalendar(holidayRepository, new DefaultResourceLoader(),
+                mock(ApplicationEventPublisher.class));
+        holidayCalendar.reload();
+
+        pricingService = new PricingService(holidayCalendar);
+        pipeline = pricingService.compile(today).forRegion("IN-MH");
+    }
+
+    @Test
+    void matchesTheDecoratorChainOnRandomRoomDays() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            // around the urgency edge and the holidays, with a year-end holiday further out
+            LocalDate date = i % 10 == 0
+                    ? today.plusYears(2).withDayOfYear(1)
+                    : today.plusDays(random.nextInt(16) - 3);
+            int totalCount = random.nextInt(11);
+            Inventory inventory = inventory(
+                    BigDecimal.valueOf(random.nextInt(1_000_000) + 1, 2),
+                    BigDecimal.valueOf(random.nextInt(300) + 1, 2),
+                    totalCount == 0 ? random.nextInt(2) : random.nextInt(totalCount + 1),
+                    totalCount,
+                    date);
+
+            assertThat(pipeline.calculatePrice(inventory))
+                    .as("%s x %s, %d/%d booked on %s", inventory.getRoom().getBasePrice(), inventory.getSurgeFactor(),
+                            inventory.getBookedCount(), inventory.getTotalCount(), date)
+                    .isEqualTo(expected(inventory));
+        }
+    }
+
+    @Test
+    void staysExactBeyondSixtyFourBits() {
+        // every rule applies: 10^17 cents times a numerator of 51,750,000 overflows a long
+        Inventory inventory = inventory(new BigDecimal("1000000000000000.00"), new BigDecimal("3.00"), 9, 10,
+                today.plusDays(2));
+
+        assertThat(pipeline.calculatePrice(inventory)).isEqualTo(expected(inventory));
+        assertThat(pipeline.calculatePrice(inventory)).isEqualTo(new BigDecimal("5175000000000000.00"));
+    }
+
+    @Test
+    void looksUpHolidaysByEpochDay() {
+        HolidayCalendar.Holidays holidays = HolidayCalendar.Holidays.of(Map.of());
+        assertThat(holidays.isHoliday(today)).isFalse();
+
+        LocalDate holiday = today.plusDays(9);
+        assertThat(pipeline.holidaysBetween(today, today.plusDays(10))).containsExactly(today.plusDays(2), holiday);
+        assertThat(pricingService.compile(today).forRegion("IN-MH").holidaysBetween(holiday, holiday)).containsExactly(holiday);
+        assertThat(pricingService.compile(today).forRegion("IN").holidaysBetween(holiday, holiday)).isEmpty();
+    }
+
+    private BigDecimal expected(Inventory inventory) {
+        return pricingService.calculateDynamicPrice(inventory).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static Inventory inventory(BigDecimal basePrice, BigDecimal surgeFactor, int bookedCount, int totalCount,
+                                       LocalDate date) {
+        Hotel hotel = new Hotel();
+        hotel.setRegion("IN-MH");
+        Room room = new Room();
+        room.setHotel(hotel);
+        room.setBasePrice(basePrice);
+        return Inventory.builder()
+                .hotel(hotel)
+                .room(room)
+                .date(date)
+                .bookedCount(bookedCount)
+                .totalCount(totalCount)
+                .surgeFactor(surgeFactor)
+                .build();
+    }
+
+    private static Holiday holiday(String region, LocalDate date) {
+        Holiday holiday = new Holiday();
+        holiday.setRegion(region);
+        holiday.setDate(date);
+        return holiday;
+    }
+}
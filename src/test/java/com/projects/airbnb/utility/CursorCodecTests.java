@@ -0,0 +1,47 @@
+package com.projects.airbnb.utility;
+
+import com.projects.airbnb.dto.CursorPage;
+import com.projects.airbnb.exception.BadRequestException;
+import com.projects.airbnb.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorCodecTests {
+
+    @Test
+    void roundTripsTheSortKey() {
+        String cursor = CursorCodec.encode(1250L, 42L);
+
+        assertThat(CursorCodec.decode(cursor, 2)).containsExactly("1250", "42");
+        assertThatThrownBy(() -> CursorCodec.decode(cursor, 1)).isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> CursorCodec.decodeId("not base64!")).isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void extraRowOnlySignalsTheNextPage() {
+        CursorPage<Long> page = CursorCodec.toPage(List.of(1L, 2L, 3L), 2, String::valueOf);
+
+        assertThat(page.getContent()).containsExactly(1L, 2L);
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(page.getNextCursor()).isEqualTo("2");
+
+        CursorPage<Long> last = CursorCodec.toPage(List.of(1L), 2, String::valueOf);
+        assertThat(last.isHasNext()).isFalse();
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @Test
+    void rejectsSizesOutsideTheLimits() {
+        assertThat(CursorCodec.checkSize(1)).isEqualTo(1);
+        assertThat(CursorCodec.checkSize(CursorCodec.MAX_PAGE_SIZE)).isEqualTo(CursorCodec.MAX_PAGE_SIZE);
+
+        for (Integer size : new Integer[]{null, 0, -1, CursorCodec.MAX_PAGE_SIZE + 1, Integer.MAX_VALUE}) {
+            assertThatThrownBy(() -> CursorCodec.checkSize(size)).isInstanceOf(BadRequestException.class);
+        }
+        assertThatThrownBy(() -> CursorCodec.checkPage(-1)).isInstanceOf(BadRequestException.class);
+    }
+}